@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.benchmarks;
+
+import obp2.language.lregexp.automata.LRegExpCompiler;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One operation is one derivative step, the input is replayed from the pattern once consumed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DerivativeBenchmark {
+    @Param({"LITERAL", "ALTERNATION", "NESTED_STARS", "PATHOLOGICAL"})
+    PatternFamily family;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int length;
+
+    LRegExpFactory<Character> factory;
+    LRegExpDerivative<Character> derivator;
+    LRegExpCompiler<Character> compiler;
+    LRegExp.Expression<Character> start;
+    Character[] input;
+
+    LRegExp.Expression<Character> current;
+    int index;
+
+    @Setup
+    public void setup() {
+        factory = LRegExpFactory.simplifying();
+        derivator = new LRegExpDerivative<>(factory);
+        LRegExp.Expression<Character> expression = family.expression(PatternFamily.DEFAULT_SIZE);
+        compiler = new LRegExpCompiler<>(expression, factory);
+        start = factory.intern(expression);
+        input = box(family.input(expression, length, new Random(42)));
+        current = start;
+        index = 0;
+    }
+
+    static Character[] box(char[] input) {
+        Character[] boxed = new Character[input.length];
+        for (int i = 0; i < input.length; i++) {
+            boxed[i] = input[i];
+        }
+        return boxed;
+    }
+
+    @Benchmark
+    public LRegExp.Expression<Character> derivative() {
+        current = current.accept(derivator, input[index]);
+        if (++index == input.length) {
+            index = 0;
+            current = start;
+        }
+        return current;
+    }
+
+    @Benchmark
+    public LRegExp.Expression<Character> compiled() {
+        current = compiler.derivative(current, input[index]);
+        if (++index == input.length) {
+            index = 0;
+            current = start;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.benchmarks;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpAntimirov;
+import obp2.language.lregexp.automata.LRegExpCodePointMatcher;
+import obp2.language.lregexp.automata.LRegExpCodegen;
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.automata.LRegExpGlushkov;
+import obp2.language.lregexp.automata.LRegExpMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One operation matches the whole input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MatchBenchmark {
+    @Param({"LITERAL", "ALTERNATION", "NESTED_STARS", "PATHOLOGICAL"})
+    PatternFamily family;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int length;
+
+    String input;
+    LRegExpDFA dfa;
+    LRegExpCodePointMatcher terms;
+    ICharMatcher table;
+    ICharMatcher generated;
+    ICharMatcher shiftAnd;
+    ICharMatcher antimirov;
+
+    @Setup
+    public void setup() {
+        dfa = LRegExpDFA.compile(family.expression(PatternFamily.DEFAULT_SIZE));
+        table = new LRegExpMatcher(dfa);
+        generated = LRegExpCodegen.matcher(family.expression(PatternFamily.DEFAULT_SIZE));
+        terms = LRegExpCodePointMatcher.of(family.expression(PatternFamily.DEFAULT_SIZE));
+        antimirov = LRegExpAntimirov.of(family.expression(PatternFamily.DEFAULT_SIZE)).matcher();
+        shiftAnd = LRegExpGlushkov.compile(family.expression(PatternFamily.DEFAULT_SIZE)).matcher();
+        input = new String(family.input(family.expression(PatternFamily.DEFAULT_SIZE), length, new Random(42)));
+    }
+
+    @Benchmark
+    public boolean compiledDFA() {
+        return dfa.matches(input);
+    }
+
+    @Benchmark
+    public boolean primitiveTerms() {
+        return terms.matches(input);
+    }
+
+    //the streaming matcher the generated one replaces, over the same automaton
+    @Benchmark
+    public boolean tableDFA() {
+        return table.matches(input);
+    }
+
+    @Benchmark
+    public boolean generatedDFA() {
+        return generated.matches(input);
+    }
+
+    @Benchmark
+    public boolean shiftAnd() {
+        return shiftAnd.matches(input);
+    }
+
+    @Benchmark
+    public boolean antimirov() {
+        return antimirov.matches(input);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.benchmarks;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpBooleanNullability;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One operation is the nullability of one derivative, taken along the input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NullabilityBenchmark {
+    static final int SAMPLES = 1024;
+
+    @Param({"LITERAL", "ALTERNATION", "NESTED_STARS", "PATHOLOGICAL"})
+    PatternFamily family;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int length;
+
+    LRegExp.Expression<Character>[] derivatives;
+    LRegExpBooleanNullability<Character> nullability;
+    int index;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+        LRegExpDerivative<Character> derivator = new LRegExpDerivative<>(factory);
+        LRegExp.Expression<Character> expression = family.expression(PatternFamily.DEFAULT_SIZE);
+        char[] input = family.input(expression, length, new Random(42));
+
+        //sample the derivatives evenly along the input
+        derivatives = new LRegExp.Expression[Math.min(SAMPLES, input.length)];
+        int stride = input.length / derivatives.length;
+        LRegExp.Expression<Character> current = factory.intern(expression);
+        for (int i = 0; i < input.length; i++) {
+            current = current.accept(derivator, input[i]);
+            if (i % stride == 0 && i / stride < derivatives.length) {
+                derivatives[i / stride] = current;
+            }
+        }
+        nullability = new LRegExpBooleanNullability<>();
+        index = 0;
+    }
+
+    LRegExp.Expression<Character> next() {
+        LRegExp.Expression<Character> expression = derivatives[index];
+        index = (index + 1) % derivatives.length;
+        return expression;
+    }
+
+    @Benchmark
+    public boolean visitor() {
+        return next().accept(nullability, null);
+    }
+
+    @Benchmark
+    public boolean precomputed() {
+        return next().isNullable();
+    }
+}
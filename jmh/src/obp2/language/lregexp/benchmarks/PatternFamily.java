@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.benchmarks;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The pattern families of the benchmarks, each with a generator of inputs.
+ * The inputs are sampled from the language of the pattern, so that matching does not reach the dead state early.
+ */
+public enum PatternFamily {
+    // (abcdefgh...)*
+    LITERAL {
+        @Override
+        public String pattern(int size) {
+            return "(" + letters(size) + ")*";
+        }
+    },
+    // (aaa|aab|...|...)*, size alternatives
+    ALTERNATION {
+        @Override
+        public String pattern(int size) {
+            StringBuilder builder = new StringBuilder("(");
+            for (int i = 0; i < size; i++) {
+                if (i > 0) builder.append('|');
+                builder.append(word(i));
+            }
+            return builder.append(")*").toString();
+        }
+    },
+    // ((((a*b)*c)*d)*...)*, size levels
+    NESTED_STARS {
+        @Override
+        public String pattern(int size) {
+            String pattern = "a";
+            for (int i = 1; i < size; i++) {
+                pattern = "(" + pattern + "*" + letter(i) + ")";
+            }
+            return "(" + pattern + ")*";
+        }
+    },
+    // (a*)*b, over a long run of a
+    PATHOLOGICAL {
+        @Override
+        public String pattern(int size) {
+            return "(a*)*b";
+        }
+
+        @Override
+        public char[] input(LRegExp.Expression<Character> expression, int length, Random random) {
+            char[] input = new char[length];
+            Arrays.fill(input, 'a');
+            return input;
+        }
+    };
+
+    public static final int DEFAULT_SIZE = 16;
+
+    public abstract String pattern(int size);
+
+    public LRegExp.Expression<Character> expression(int size) {
+        return new LRegExpCharReader().readExpression(pattern(size));
+    }
+
+    /**
+     * @return an input of the given length, the concatenation of words sampled from the starred expression
+     */
+    public char[] input(LRegExp.Expression<Character> expression, int length, Random random) {
+        LRegExp.Expression<Character> body = ((LRegExp.KleeneStar<Character>) expression).operands.get(0);
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            sample(body, random, builder);
+        }
+        builder.setLength(length);
+        return builder.toString().toCharArray();
+    }
+
+    static void sample(LRegExp.Expression<Character> expression, Random random, StringBuilder builder) {
+        if (expression instanceof LRegExp.Token) {
+            builder.append(((LRegExp.Token<Character>) expression).token.charValue());
+        } else if (expression instanceof LRegExp.Union) {
+            sample(((LRegExp.Union<Character>) expression).operands.get(random.nextInt(2)), random, builder);
+        } else if (expression instanceof LRegExp.Concatenation) {
+            for (LRegExp.Expression<Character> operand : ((LRegExp.Concatenation<Character>) expression).operands) {
+                sample(operand, random, builder);
+            }
+        } else if (expression instanceof LRegExp.KleeneStar) {
+            for (int i = random.nextInt(4); i > 0; i--) {
+                sample(((LRegExp.KleeneStar<Character>) expression).operands.get(0), random, builder);
+            }
+        }
+    }
+
+    static char letter(int i) {
+        return (char) ('a' + i % 26);
+    }
+
+    static String letters(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            builder.append(letter(i));
+        }
+        return builder.toString();
+    }
+
+    static String word(int i) {
+        return "" + letter(i / (26 * 26)) + letter(i / 26) + letter(i);
+    }
+}
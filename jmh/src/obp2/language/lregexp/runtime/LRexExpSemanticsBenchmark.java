@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.runtime;
+
+import obp2.language.lregexp.benchmarks.PatternFamily;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One operation is one {@link LRexExpSemantics#execute} step, the input is replayed once consumed.
+ * This benchmark lives in the runtime package to read the outcomes of the steps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LRexExpSemanticsBenchmark {
+    @Param({"LITERAL", "ALTERNATION", "NESTED_STARS", "PATHOLOGICAL"})
+    PatternFamily family;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int length;
+
+    @Param({"false", "true"})
+    boolean lazyDFA;
+
+    LRexExpSemantics<Character> semantics;
+    LRegExpDerivative<Character> action;
+    LRegExpConfiguration<Character> initial;
+    Character[] input;
+
+    LRegExpConfiguration<Character> current;
+    int index;
+
+    @Setup
+    public void setup() {
+        LRegExp.Expression<Character> expression = family.expression(PatternFamily.DEFAULT_SIZE);
+        semantics = new LRexExpSemantics<>(expression, LRegExpFactory.simplifying(), lazyDFA);
+        initial = semantics.initial().iterator().next();
+        char[] characters = family.input(expression, length, new Random(42));
+        input = new Character[characters.length];
+        for (int i = 0; i < characters.length; i++) {
+            input[i] = characters[i];
+        }
+        action = semantics.actions(input[0], initial).iterator().next();
+        current = initial;
+        index = 0;
+    }
+
+    @Benchmark
+    public boolean execute() {
+        Outcome<Boolean, LRegExpConfiguration<Character>> outcome = semantics.execute(action, input[index], current).iterator().next();
+        current = outcome.target;
+        if (++index == input.length) {
+            index = 0;
+            current = initial;
+        }
+        return outcome.output;
+    }
+}
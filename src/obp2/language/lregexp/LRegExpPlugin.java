@@ -25,9 +25,9 @@
 package obp2.language.lregexp;
 
 import obp2.language.lregexp.diagnosis.LRegExpAtomicPropositionEvaluator;
-import obp2.language.lregexp.model.LRegExpCharReader;
 import obp2.language.lregexp.model.LRegExp;
-import obp2.language.lregexp.model.StringIterator;
+import obp2.language.lregexp.model.LRegExpCache;
+import obp2.language.lregexp.model.LRegExpFactory;
 import obp2.language.lregexp.runtime.LRegExpAction;
 import obp2.language.lregexp.runtime.LRegExpConfiguration;
 import obp2.language.lregexp.runtime.LRegExpTransitionRelation;
@@ -67,13 +67,12 @@ public class LRegExpPlugin implements ILanguagePlugin<URI, LRegExpConfiguration,
     public ILanguageModule<LRegExpConfiguration, LRegExpAction, Void> getRuntime(File programFile) {
         try {
             String string = new String(Files.readAllBytes(programFile.toPath()));
-            StringIterator iterator = new StringIterator(string);
-            LRegExpCharReader reader = new LRegExpCharReader();
-            LRegExp.Expression<Character> program = reader.readExpression(iterator);
+            //interned by the factory of the state table, which would otherwise intern a second, simplified copy
+            LRegExp.Expression<Character> program = LRegExpCache.expression(string, LRegExpFactory.simplifying());
             LRegExpTransitionRelation<Character> runtime = new LRegExpTransitionRelation<>(programFile.getName(), program);
 
-            return new LanguageModule<>(runtime, new LRegExpAtomicPropositionEvaluator(program), new LRegExpRuntimeView(runtime));
-        } catch (IOException e) {
+            return new LanguageModule<>(runtime, new LRegExpAtomicPropositionEvaluator<>(runtime), new LRegExpRuntimeView(runtime));
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println(e.getMessage());
             e.printStackTrace();
         }
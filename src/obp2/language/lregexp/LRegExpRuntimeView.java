@@ -44,12 +44,12 @@ public class LRegExpRuntimeView<T> extends DefaultTreeProjector<LRegExpConfigura
 
     @Override
     public TreeItem projectConfiguration(LRegExpConfiguration value) {
-        TreeItem entry = new TreeItem("nothing");
+        TreeItem entry = new TreeItem(String.valueOf(value.expression()));
         return new TreeItem(runtime.name, Collections.singletonList(entry));
     }
 
     @Override
     public TreeItem projectFireable(LRegExpAction action) {
-        return new TreeItem("next");
+        return new TreeItem(String.valueOf(action));
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import java.nio.CharBuffer;
+
+/**
+ * Matches an input fed in chunks, keeping its state between the feeds.
+ * The input read so far is accepted if it belongs to the language of the pattern.
+ */
+public interface ICharMatcher {
+    enum Status {
+        //the input read so far is accepted
+        ACCEPT,
+        //the input read so far is rejected, but some continuation may be accepted
+        REJECT,
+        //neither the input read so far nor any continuation is accepted
+        DEAD
+    }
+
+    Status feed(char[] chunk, int offset, int length);
+
+    default Status feed(char[] chunk) {
+        return feed(chunk, 0, chunk.length);
+    }
+
+    Status feed(CharSequence chunk);
+
+    /**
+     * Consumes the remaining characters of the buffer.
+     */
+    default Status feed(CharBuffer chunk) {
+        if (chunk.hasArray()) {
+            Status status = feed(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+            chunk.position(chunk.limit());
+            return status;
+        }
+        Status status = feed((CharSequence) chunk);
+        chunk.position(chunk.limit());
+        return status;
+    }
+
+    Status status();
+
+    /**
+     * Forgets the input read so far.
+     */
+    void reset();
+
+    default boolean matches(CharSequence input) {
+        reset();
+        return feed(input) == Status.ACCEPT;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+/**
+ * A streaming matcher running the lazy DFA of the derivatives while it stays within a budget,
+ * of derivative states and of expression size, then simulating the {@link LRegExpAntimirov} automaton
+ * of the current derivative for the rest of the input.
+ * The derivative is equivalent to the input read so far, so the switch does not change the accepted language.
+ * After the switch a step costs at most the number of partial derivatives times their fanout, both bounded by the size of the pattern,
+ * and the DFA is dropped; a matcher which exceeded its budget restarts in NFA mode when reset.
+ */
+public class LRegExpAdaptiveMatcher implements ICharMatcher {
+    public static final int DEFAULT_MAX_STATES = 10_000;
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    final LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+    final LRegExpCharClasses classes;
+    final LRegExp.Expression<Character> expression;
+    final int maxStates;
+    final int maxSize;
+
+    //the DFA mode, null once the budget was exceeded
+    LRegExpLazyDFA<Character> dfa;
+    int state;
+
+    //the NFA mode, and the state of the pattern in its automaton
+    LRegExpAntimirovMatcher nfa;
+    int initial = -1;
+
+    public LRegExpAdaptiveMatcher(LRegExp.Expression<Character> expression) {
+        this(expression, DEFAULT_MAX_STATES, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxStates the number of derivative states beyond which the matcher switches to the NFA
+     * @param maxSize the size of a derivative beyond which the matcher switches to the NFA
+     */
+    public LRegExpAdaptiveMatcher(LRegExp.Expression<Character> expression, int maxStates, int maxSize) {
+        this.classes = LRegExpCharClasses.of(expression);
+        this.expression = factory.intern(expression);
+        this.maxStates = maxStates;
+        this.maxSize = maxSize;
+        this.dfa = new LRegExpLazyDFA<>(this.expression, factory, classes.representatives());
+        this.state = dfa.initial();
+        if (this.expression.size() > maxSize) {
+            switchToNFA(this.expression);
+        }
+    }
+
+    /**
+     * @return true once the matcher simulates the NFA
+     */
+    public boolean isNFA() {
+        return dfa == null;
+    }
+
+    void switchToNFA(LRegExp.Expression<Character> derivative) {
+        dfa = null;
+        //the arena of the pattern, so that its alphabet covers the derivative
+        LRegExpIntTerms terms = LRegExpIntTerms.of(expression);
+        LRegExpAntimirov automaton = new LRegExpAntimirov(terms);
+        initial = automaton.stateOf(terms.intern(expression));
+        nfa = new LRegExpAntimirovMatcher(automaton, automaton.stateOf(terms.intern(derivative)));
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        int i = offset, end = offset + length;
+        for (; i < end && dfa != null && !dfa.isDead(state); i++) {
+            step(chunk[i]);
+        }
+        return dfa != null ? status() : nfa.feed(chunk, i, end - i);
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        int i = 0, end = chunk.length();
+        for (; i < end && dfa != null && !dfa.isDead(state); i++) {
+            step(chunk.charAt(i));
+        }
+        return dfa != null ? status() : nfa.feed(chunk.subSequence(i, end));
+    }
+
+    void step(char c) {
+        int size = dfa.size();
+        state = dfa.nextOfClass(state, classes.classOf(c));
+        //only a new state can exceed the budget
+        if (dfa.size() > size && (dfa.size() > maxStates || dfa.expression(state).size() > maxSize)) {
+            switchToNFA(dfa.expression(state));
+        }
+    }
+
+    @Override
+    public Status status() {
+        if (dfa == null) return nfa.status();
+        if (dfa.isAccepting(state)) return Status.ACCEPT;
+        return dfa.isDead(state) ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        if (dfa != null) {
+            state = dfa.initial();
+        } else {
+            nfa.reset(initial);
+        }
+    }
+}
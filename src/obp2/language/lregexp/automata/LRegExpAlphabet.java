@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpTokens;
+
+import java.util.*;
+
+/**
+ * Partitions the alphabet into the classes of symbols the tokens of some expressions can tell apart:
+ * one class per distinct token, and a last class for all the other symbols.
+ * Two symbols of the same class have the same derivatives, so the automata need one transition per class.
+ */
+public class LRegExpAlphabet<T> {
+    //a token of each class but the other one, indexed by class
+    final List<T> representatives;
+    final Map<T, Integer> classes;
+
+    /**
+     * @throws IllegalArgumentException if a token is null
+     */
+    public LRegExpAlphabet(Collection<T> tokens) {
+        this.representatives = new ArrayList<>(new LinkedHashSet<>(tokens));
+        if (representatives.contains(null)) {
+            throw new IllegalArgumentException("LRegExp: a token of the alphabet is null");
+        }
+        this.classes = new HashMap<>();
+        for (int i = 0; i < representatives.size(); i++) {
+            classes.put(representatives.get(i), i);
+        }
+    }
+
+    @SafeVarargs
+    public static <T> LRegExpAlphabet<T> of(LRegExp.Expression<T>... expressions) {
+        Set<T> tokens = new LinkedHashSet<>();
+        for (LRegExp.Expression<T> expression : expressions) {
+            tokens.addAll(LRegExpTokens.of(expression));
+        }
+        return new LRegExpAlphabet<>(tokens);
+    }
+
+    public static <T> LRegExpAlphabet<T> of(List<LRegExp.Expression<T>> expressions) {
+        Set<T> tokens = new LinkedHashSet<>();
+        for (LRegExp.Expression<T> expression : expressions) {
+            tokens.addAll(LRegExpTokens.of(expression));
+        }
+        return new LRegExpAlphabet<>(tokens);
+    }
+
+    public int classOf(T symbol) {
+        Integer symbolClass = classes.get(symbol);
+        return symbolClass == null ? other() : symbolClass;
+    }
+
+    /**
+     * @return the token of the class, or null for the class of the other symbols:
+     * no token is null, so the derivatives by null are the derivatives by the other symbols
+     */
+    public T representative(int symbolClass) {
+        return isOther(symbolClass) ? null : representatives.get(symbolClass);
+    }
+
+    /**
+     * @return the token of each class but the other one, indexed by class
+     */
+    public List<T> representatives() {
+        return Collections.unmodifiableList(representatives);
+    }
+
+    public boolean isOther(int symbolClass) {
+        return symbolClass == other();
+    }
+
+    public int other() {
+        return representatives.size();
+    }
+
+    /**
+     * @return the number of classes
+     */
+    public int size() {
+        return representatives.size() + 1;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+
+import java.util.Arrays;
+
+/**
+ * An NFA over the partial derivatives of Antimirov, on the terms of a {@link LRegExpIntTerms} arena.
+ * <pre>
+ * ∂ ∅ t ≜ ∂ ε t ≜ {}
+ * ∂ a t ≜ {ε} if a = t, {} otherwise
+ * ∂ (r | s) t ≜ ∂ r t ∪ ∂ s t
+ * ∂ (r ∘ s) t ≜ { r' ∘ s | r' ∈ ∂ r t } ∪ (∂ s t if r is nullable)
+ * ∂ r* t ≜ { r' ∘ r* | r' ∈ ∂ r t }
+ * </pre>
+ * The partial derivatives are concatenations of subterms of the pattern, at most one per token plus the pattern itself,
+ * so the automaton is linear in the size of the pattern where the derivatives may reach exponentially many states.
+ * Its states are dense ids into a table of terms, and the successors of each state are cached per class, as arrays of states.
+ * Not thread-safe.
+ */
+public class LRegExpAntimirov {
+    static final int[] NONE = new int[0];
+
+    final LRegExpIntTerms terms;
+
+    //the states: their term and nullability; the state of each term, -1 if none
+    int[] stateTerms = new int[16];
+    boolean[] nullable = new boolean[16];
+    int[] states = new int[64];
+    int size;
+
+    //the successors of each state by class, null when not computed yet
+    int[][][] successors = new int[16][][];
+
+    //the scratch buffer of the partial derivatives, and the marks of their deduplication
+    int[] partials = new int[16];
+    long[] marks = new long[1];
+
+    public LRegExpAntimirov(LRegExpIntTerms terms) {
+        this.terms = terms;
+        Arrays.fill(states, -1);
+    }
+
+    /**
+     * @return the automaton of an expression over {@link Character} or {@link Integer} code points, its initial state is 0
+     */
+    public static LRegExpAntimirov of(LRegExp.Expression<?> expression) {
+        LRegExpIntTerms terms = LRegExpIntTerms.of(expression);
+        LRegExpAntimirov automaton = new LRegExpAntimirov(terms);
+        automaton.stateOf(terms.intern(expression));
+        return automaton;
+    }
+
+    /**
+     * @return the state of a term of the arena, added if new
+     */
+    public int stateOf(int term) {
+        if (term >= states.length) {
+            int length = states.length;
+            states = Arrays.copyOf(states, Math.max(term + 1, length * 2));
+            Arrays.fill(states, length, states.length, -1);
+        }
+        int state = states[term];
+        if (state >= 0) return state;
+
+        state = size++;
+        if (state == stateTerms.length) {
+            stateTerms = Arrays.copyOf(stateTerms, state * 2);
+            nullable = Arrays.copyOf(nullable, state * 2);
+            successors = Arrays.copyOf(successors, state * 2);
+        }
+        stateTerms[state] = term;
+        nullable[state] = terms.isNullable(term);
+        states[term] = state;
+        return state;
+    }
+
+    /**
+     * @return the states of the partial derivatives of the state by the class, the array must not be modified
+     */
+    public int[] successors(int state, int symbolClass) {
+        int[][] row = successors[state];
+        if (row == null) {
+            row = new int[terms.classes()][];
+            successors[state] = row;
+        }
+        int[] result = row[symbolClass];
+        if (result == null) {
+            result = compute(stateTerms[state], symbolClass);
+            row[symbolClass] = result;
+        }
+        return result;
+    }
+
+    int[] compute(int term, int symbolClass) {
+        int count = partials(term, symbolClass, 0);
+        int[] result = new int[count];
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            //an empty factor of the pattern, it has no continuation
+            if (partials[i] == LRegExpIntTerms.EMPTY) continue;
+            int target = stateOf(partials[i]);
+            if (target >= marks.length << 6) {
+                marks = Arrays.copyOf(marks, Math.max((target >>> 6) + 1, marks.length * 2));
+            }
+            if ((marks[target >>> 6] & 1L << target) == 0) {
+                marks[target >>> 6] |= 1L << target;
+                result[distinct++] = target;
+            }
+        }
+        for (int i = 0; i < distinct; i++) {
+            marks[result[i] >>> 6] = 0;
+        }
+        if (distinct == 0) return NONE;
+        return distinct == count ? result : Arrays.copyOf(result, distinct);
+    }
+
+    //appends the partial derivatives of the term to the scratch buffer from count, returns the new count
+    int partials(int term, int symbolClass, int count) {
+        int first = terms.lhs[term];
+        int second = terms.rhs[term];
+        int from = count;
+        switch (terms.kinds[term]) {
+            case LRegExpIntTerms.K_TOKEN:
+                return second == symbolClass ? append(LRegExpIntTerms.EPSILON, count) : count;
+            case LRegExpIntTerms.K_UNION:
+                return partials(second, symbolClass, partials(first, symbolClass, count));
+            case LRegExpIntTerms.K_CONCATENATION:
+                count = partials(first, symbolClass, count);
+                for (int i = from; i < count; i++) {
+                    partials[i] = terms.concatenation(partials[i], second);
+                }
+                return terms.isNullable(first) ? partials(second, symbolClass, count) : count;
+            case LRegExpIntTerms.K_STAR:
+                count = partials(first, symbolClass, count);
+                for (int i = from; i < count; i++) {
+                    partials[i] = terms.concatenation(partials[i], term);
+                }
+                return count;
+            default:
+                return count;
+        }
+    }
+
+    int append(int term, int count) {
+        if (count == partials.length) {
+            partials = Arrays.copyOf(partials, count * 2);
+        }
+        partials[count] = term;
+        return count + 1;
+    }
+
+    public boolean isNullable(int state) {
+        return nullable[state];
+    }
+
+    /**
+     * @return the term of the state, in the arena
+     */
+    public int term(int state) {
+        return stateTerms[state];
+    }
+
+    /**
+     * @return the number of states discovered so far
+     */
+    public int size() {
+        return size;
+    }
+
+    public LRegExpIntTerms terms() {
+        return terms;
+    }
+
+    /**
+     * @return a matcher from the initial state
+     */
+    public LRegExpAntimirovMatcher matcher() {
+        return new LRegExpAntimirovMatcher(this, 0);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import java.util.Arrays;
+
+/**
+ * A streaming matcher simulating a {@link LRegExpAntimirov} automaton: its state is the set of active states, a bitset
+ * which is reused across the steps, so that a step allocates only while new partial derivatives are discovered.
+ * The input read so far is accepted if an active state is nullable.
+ */
+public class LRegExpAntimirovMatcher implements ICharMatcher {
+    final LRegExpAntimirov automaton;
+    int initial;
+
+    long[] current = new long[1];
+    long[] next = new long[1];
+    //the words of current holding a state are below words
+    int words;
+    boolean accepting;
+
+    public LRegExpAntimirovMatcher(LRegExpAntimirov automaton, int initial) {
+        this.automaton = automaton;
+        reset(initial);
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end && words > 0; i++) {
+            step(chunk[i]);
+        }
+        return status();
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        for (int i = 0, end = chunk.length(); i < end && words > 0; i++) {
+            step(chunk.charAt(i));
+        }
+        return status();
+    }
+
+    void step(char c) {
+        int symbolClass = automaton.terms.classOf(c);
+        long[] current = this.current;
+        long[] next = this.next;
+        int nextWords = 0;
+        boolean accepting = false;
+        for (int word = 0; word < words; word++) {
+            for (long bits = current[word]; bits != 0; bits &= bits - 1) {
+                int state = word << 6 | Long.numberOfTrailingZeros(bits);
+                for (int target : automaton.successors(state, symbolClass)) {
+                    int index = target >>> 6;
+                    if (index >= next.length) {
+                        next = Arrays.copyOf(next, Math.max(index + 1, next.length * 2));
+                    }
+                    next[index] |= 1L << target;
+                    nextWords = Math.max(nextWords, index + 1);
+                    accepting |= automaton.nullable[target];
+                }
+            }
+            current[word] = 0;
+        }
+        this.current = next;
+        this.next = current.length >= next.length ? current : Arrays.copyOf(current, next.length);
+        this.words = nextWords;
+        this.accepting = accepting;
+    }
+
+    @Override
+    public Status status() {
+        if (accepting) return Status.ACCEPT;
+        return words == 0 ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        reset(initial);
+    }
+
+    /**
+     * Restarts from a single state of the automaton.
+     */
+    public void reset(int state) {
+        Arrays.fill(current, 0, words, 0);
+        initial = state;
+        int index = state >>> 6;
+        if (index >= current.length) {
+            current = new long[index + 1];
+            next = new long[index + 1];
+        }
+        if (automaton.term(state) == LRegExpIntTerms.EMPTY) {
+            words = 0;
+        } else {
+            current[index] = 1L << state;
+            words = index + 1;
+        }
+        accepting = automaton.isNullable(state);
+    }
+
+    /**
+     * @return the number of active states
+     */
+    public int count() {
+        int count = 0;
+        for (int word = 0; word < words; word++) {
+            count += Long.bitCount(current[word]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpTokens;
+
+import java.util.*;
+
+/**
+ * The {@link LRegExpAlphabet} of character expressions, with an allocation-free lookup of the class of a character.
+ * The classes of the Latin-1 characters are stored in a dense array,
+ * the characters above are looked up in a table of ranges, which alternate between the other characters and the tokens.
+ * The tokens are numbered in increasing order, the class of the other characters comes last.
+ */
+public class LRegExpCharClasses {
+    static final int LATIN1 = 256;
+
+    final char[] symbols;
+    final int[] latin1 = new int[LATIN1];
+    final char[] rangeStarts;
+    final int[] rangeClasses;
+
+    public LRegExpCharClasses(Collection<Character> tokens) {
+        SortedSet<Character> sorted = new TreeSet<>(tokens);
+        symbols = new char[sorted.size()];
+        int index = 0;
+        for (Character symbol : sorted) {
+            symbols[index++] = symbol;
+        }
+        int other = symbols.length;
+
+        Arrays.fill(latin1, other);
+        List<Character> starts = new ArrayList<>();
+        List<Integer> classes = new ArrayList<>();
+        starts.add((char) LATIN1);
+        classes.add(other);
+        for (int symbolClass = 0; symbolClass < symbols.length; symbolClass++) {
+            char symbol = symbols[symbolClass];
+            if (symbol < LATIN1) {
+                latin1[symbol] = symbolClass;
+                continue;
+            }
+            if (starts.get(starts.size() - 1) == symbol) {
+                //the previous range is empty
+                classes.set(classes.size() - 1, symbolClass);
+            } else {
+                starts.add(symbol);
+                classes.add(symbolClass);
+            }
+            if (symbol != Character.MAX_VALUE) {
+                starts.add((char) (symbol + 1));
+                classes.add(other);
+            }
+        }
+        rangeStarts = new char[starts.size()];
+        rangeClasses = new int[classes.size()];
+        for (int i = 0; i < rangeStarts.length; i++) {
+            rangeStarts[i] = starts.get(i);
+            rangeClasses[i] = classes.get(i);
+        }
+    }
+
+    @SafeVarargs
+    public static LRegExpCharClasses of(LRegExp.Expression<Character>... expressions) {
+        Set<Character> tokens = new HashSet<>();
+        for (LRegExp.Expression<Character> expression : expressions) {
+            tokens.addAll(LRegExpTokens.of(expression));
+        }
+        return new LRegExpCharClasses(tokens);
+    }
+
+    public static LRegExpCharClasses of(List<LRegExp.Expression<Character>> expressions) {
+        Set<Character> tokens = new HashSet<>();
+        for (LRegExp.Expression<Character> expression : expressions) {
+            tokens.addAll(LRegExpTokens.of(expression));
+        }
+        return new LRegExpCharClasses(tokens);
+    }
+
+    public int classOf(char c) {
+        if (c < LATIN1) return latin1[c];
+        int range = Arrays.binarySearch(rangeStarts, c);
+        return rangeClasses[range < 0 ? -range - 2 : range];
+    }
+
+    /**
+     * @return a character of the class
+     */
+    public char representative(int symbolClass) {
+        if (symbolClass < symbols.length) return symbols[symbolClass];
+        //the smallest character which is not a token
+        char other = 0;
+        for (char symbol : symbols) {
+            if (symbol != other) break;
+            other++;
+        }
+        return other;
+    }
+
+    public List<Character> representatives() {
+        List<Character> representatives = new ArrayList<>(size());
+        for (int symbolClass = 0; symbolClass < size(); symbolClass++) {
+            representatives.add(representative(symbolClass));
+        }
+        return representatives;
+    }
+
+    public int other() {
+        return symbols.length;
+    }
+
+    /**
+     * @return the number of classes
+     */
+    public int size() {
+        return symbols.length + 1;
+    }
+}
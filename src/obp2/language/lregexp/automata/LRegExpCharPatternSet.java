@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A {@link LRegExpPatternSet} over the {@link LRegExpCharClasses} of character expressions.
+ */
+public class LRegExpCharPatternSet {
+    final LRegExpCharClasses classes;
+    final LRegExpPatternSet<Character> set;
+
+    public LRegExpCharPatternSet(List<LRegExp.Expression<Character>> patterns) {
+        this.classes = LRegExpCharClasses.of(patterns);
+        //the classes of the alphabet are numbered as the character classes
+        List<Character> tokens = classes.representatives().subList(0, classes.other());
+        this.set = new LRegExpPatternSet<>(patterns, LRegExpFactory.simplifying(), new LRegExpAlphabet<>(tokens));
+    }
+
+    public int initial() {
+        return set.initial();
+    }
+
+    public int next(int state, char c) {
+        return set.nextOfClass(state, classes.classOf(c));
+    }
+
+    /**
+     * @return the indices of the patterns matching the whole input
+     */
+    public BitSet match(CharSequence input) {
+        int state = set.initial();
+        for (int i = 0, length = input.length(); i < length && !set.isDead(state); i++) {
+            state = set.nextOfClass(state, classes.classOf(input.charAt(i)));
+        }
+        return set.acceptingSet(state);
+    }
+
+    public LRegExpPatternSet<Character> set() {
+        return set;
+    }
+}
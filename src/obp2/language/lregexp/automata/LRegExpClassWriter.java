@@ -0,0 +1,349 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal class file writer, just enough for the classes generated by {@link LRegExpCodegen} and {@link LRegExpCompiler}:
+ * fields without attributes, methods with a Code attribute, branches to labels.
+ * The classes are written in version 49, which does not require stack map frames.
+ */
+class LRegExpClassWriter {
+    static final int VERSION = 49;
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int CALOAD = 0x34;
+    static final int ASTORE = 0x3a;
+    static final int IAND = 0x7e;
+    static final int IINC = 0x84;
+    static final int IF_ICMPGE = 0xa2;
+    static final int IF_ACMPNE = 0xa6;
+    static final int GOTO = 0xa7;
+    static final int TABLESWITCH = 0xaa;
+    static final int LOOKUPSWITCH = 0xab;
+    static final int IRETURN = 0xac;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETSTATIC = 0xb2;
+    static final int PUTSTATIC = 0xb3;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int CHECKCAST = 0xc0;
+
+    final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    final DataOutputStream poolOut = new DataOutputStream(pool);
+    final Map<String, Integer> constants = new HashMap<>();
+    int poolSize = 1;
+
+    final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+    final DataOutputStream fieldsOut = new DataOutputStream(fields);
+    int fieldCount;
+
+    final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    final DataOutputStream methodsOut = new DataOutputStream(methods);
+    int methodCount;
+
+    final int thisClass;
+    final int superClass;
+    final int[] interfaces;
+
+    LRegExpClassWriter(String name, String superName, String... interfaceNames) {
+        thisClass = classConstant(name);
+        superClass = classConstant(superName);
+        interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classConstant(interfaceNames[i]);
+        }
+    }
+
+    int utf8(String value) {
+        Integer index = constants.get("U" + value);
+        if (index != null) return index;
+        try {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        constants.put("U" + value, poolSize);
+        return poolSize++;
+    }
+
+    int classConstant(String name) {
+        return constant("C" + name, 7, utf8(name), -1);
+    }
+
+    int methodConstant(String owner, String name, String descriptor, boolean isInterface) {
+        int nameAndType = constant("N" + name + descriptor, 12, utf8(name), utf8(descriptor));
+        return constant((isInterface ? "I" : "M") + owner + "." + name + descriptor, isInterface ? 11 : 10, classConstant(owner), nameAndType);
+    }
+
+    int fieldConstant(String owner, String name, String descriptor) {
+        int nameAndType = constant("N" + name + descriptor, 12, utf8(name), utf8(descriptor));
+        return constant("F" + owner + "." + name + descriptor, 9, classConstant(owner), nameAndType);
+    }
+
+    private int constant(String key, int tag, int first, int second) {
+        Integer index = constants.get(key);
+        if (index != null) return index;
+        try {
+            poolOut.writeByte(tag);
+            poolOut.writeShort(first);
+            if (second >= 0) {
+                poolOut.writeShort(second);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        constants.put(key, poolSize);
+        return poolSize++;
+    }
+
+    void field(int access, String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        try {
+            fieldsOut.writeShort(access);
+            fieldsOut.writeShort(nameIndex);
+            fieldsOut.writeShort(descriptorIndex);
+            fieldsOut.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    void method(String name, String descriptor, Code code) {
+        method(ACC_PUBLIC, name, descriptor, code);
+    }
+
+    void method(int access, String name, String descriptor, Code code) {
+        code.resolve();
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int codeIndex = utf8("Code");
+        try {
+            methodsOut.writeShort(access);
+            methodsOut.writeShort(nameIndex);
+            methodsOut.writeShort(descriptorIndex);
+            methodsOut.writeShort(1);
+            methodsOut.writeShort(codeIndex);
+            methodsOut.writeInt(12 + code.length);
+            methodsOut.writeShort(code.maxStack);
+            methodsOut.writeShort(code.maxLocals);
+            methodsOut.writeInt(code.length);
+            methodsOut.write(code.bytes, 0, code.length);
+            //no exception table, no attributes
+            methodsOut.writeShort(0);
+            methodsOut.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int anInterface : interfaces) {
+                out.writeShort(anInterface);
+            }
+            out.writeShort(fieldCount);
+            fields.writeTo(out);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The bytecode of a method, the branches target labels which are resolved once the code is complete.
+     */
+    static class Code {
+        //HotSpot does not compile the methods larger than this (HugeMethodLimit), they would stay interpreted
+        static final int MAX_LENGTH = 8000;
+
+        final int maxStack;
+        final int maxLocals;
+        byte[] bytes = new byte[256];
+        int length;
+
+        int[] labels = new int[16];
+        int labelCount;
+        //the branches: the instruction address, the offset address, the label, the offset width
+        final List<int[]> branches = new ArrayList<>();
+
+        Code(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        int newLabel() {
+            if (labelCount == labels.length) {
+                labels = Arrays.copyOf(labels, labelCount * 2);
+            }
+            labels[labelCount] = -1;
+            return labelCount++;
+        }
+
+        void mark(int label) {
+            labels[label] = length;
+        }
+
+        void u1(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >>> 8);
+            u1(value);
+        }
+
+        void u4(int value) {
+            u2(value >>> 16);
+            u2(value);
+        }
+
+        void op(int opcode, int operand) {
+            u1(opcode);
+            u1(operand);
+        }
+
+        void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                u1(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(BIPUSH, value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                u1(SIPUSH);
+                u2(value);
+            } else {
+                throw new IllegalStateException("LRegExp: the constant " + value + " does not fit in a short");
+            }
+        }
+
+        void branch(int opcode, int label) {
+            int address = length;
+            u1(opcode);
+            branches.add(new int[]{address, length, label, 2});
+            u2(0);
+        }
+
+        //the operands of the switches start at a multiple of 4 from the start of the code
+        private void align() {
+            while (length % 4 != 0) {
+                u1(0);
+            }
+        }
+
+        private void target(int address, int label) {
+            branches.add(new int[]{address, length, label, 4});
+            u4(0);
+        }
+
+        void tableSwitch(int low, int[] labels, int defaultLabel) {
+            int address = length;
+            u1(TABLESWITCH);
+            align();
+            target(address, defaultLabel);
+            u4(low);
+            u4(low + labels.length - 1);
+            for (int label : labels) {
+                target(address, label);
+            }
+        }
+
+        /**
+         * @param keys sorted ascending
+         */
+        void lookupSwitch(int[] keys, int[] labels, int defaultLabel) {
+            int address = length;
+            u1(LOOKUPSWITCH);
+            align();
+            target(address, defaultLabel);
+            u4(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                u4(keys[i]);
+                target(address, labels[i]);
+            }
+        }
+
+        void resolve() {
+            if (length > MAX_LENGTH) {
+                throw new IllegalStateException("LRegExp: " + length + " bytes of code, the methods are only compiled up to " + MAX_LENGTH);
+            }
+            for (int[] branch : branches) {
+                int offset = labels[branch[2]] - branch[0];
+                int at = branch[1];
+                if (branch[3] == 4) {
+                    bytes[at++] = (byte) (offset >>> 24);
+                    bytes[at++] = (byte) (offset >>> 16);
+                }
+                bytes[at++] = (byte) (offset >>> 8);
+                bytes[at] = (byte) offset;
+            }
+            branches.clear();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+
+/**
+ * A streaming matcher stepping the primitive terms of {@link LRegExpIntTerms}, without boxing the input.
+ * The patterns over {@link Character} read the input by char, the patterns over {@link Integer} code points
+ * read it by code point, combining the surrogate pairs, even when split across two feeds.
+ */
+public class LRegExpCodePointMatcher implements ICharMatcher {
+    final LRegExpIntTerms terms;
+    final int initial;
+    final boolean codePoints;
+    int state;
+    //the high surrogate ending the last feed, 0 if none
+    char pending;
+
+    public LRegExpCodePointMatcher(LRegExpIntTerms terms, int initial, boolean codePoints) {
+        this.terms = terms;
+        this.initial = initial;
+        this.codePoints = codePoints;
+        this.state = initial;
+    }
+
+    public static LRegExpCodePointMatcher of(LRegExp.Expression<Character> expression) {
+        LRegExpIntTerms terms = LRegExpIntTerms.of(expression);
+        return new LRegExpCodePointMatcher(terms, terms.intern(expression), false);
+    }
+
+    public static LRegExpCodePointMatcher ofCodePoints(LRegExp.Expression<Integer> expression) {
+        LRegExpIntTerms terms = LRegExpIntTerms.of(expression);
+        return new LRegExpCodePointMatcher(terms, terms.intern(expression), true);
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end && state != LRegExpIntTerms.EMPTY; i++) {
+            step(chunk[i]);
+        }
+        return status();
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        for (int i = 0, end = chunk.length(); i < end && state != LRegExpIntTerms.EMPTY; i++) {
+            step(chunk.charAt(i));
+        }
+        return status();
+    }
+
+    void step(char c) {
+        if (!codePoints) {
+            state = terms.next(state, c);
+            return;
+        }
+        if (pending != 0) {
+            char high = pending;
+            pending = 0;
+            if (Character.isLowSurrogate(c)) {
+                state = terms.next(state, Character.toCodePoint(high, c));
+                return;
+            }
+            //an unpaired high surrogate stands for itself
+            state = terms.next(state, high);
+            if (state == LRegExpIntTerms.EMPTY) return;
+        }
+        if (Character.isHighSurrogate(c)) {
+            pending = c;
+        } else {
+            state = terms.next(state, c);
+        }
+    }
+
+    @Override
+    public Status status() {
+        if (pending != 0) {
+            //a pending high surrogate is read as unpaired, but the next feed may still pair it
+            return terms.isNullable(terms.next(state, pending)) ? Status.ACCEPT : Status.REJECT;
+        }
+        if (terms.isNullable(state)) return Status.ACCEPT;
+        return state == LRegExpIntTerms.EMPTY ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        state = initial;
+        pending = 0;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static obp2.language.lregexp.automata.LRegExpClassWriter.*;
+
+/**
+ * Generates a class running a {@link LRegExpDFA}, the transitions are compiled into the code instead of looked up in a table.
+ * Each state is a block of code reading the next character and switching on it, with one case per token
+ * and the other characters on the default branch, each branch jumping to the block of the target state.
+ * So the current state is the program counter, and the acceptance of the states is a switch on constants.
+ * The automata whose code exceeds {@link LRegExpClassWriter.Code#MAX_LENGTH} are run from their table instead,
+ * since HotSpot leaves the larger methods interpreted.
+ *
+ * The classes are defined as hidden classes when the runtime supports them (Java 15+),
+ * and otherwise each in its own class loader; either way they are unloaded with their matcher.
+ */
+public final class LRegExpCodegen {
+    /**
+     * The interface implemented by the generated classes.
+     */
+    public interface Program {
+        /**
+         * @return the state reached from the state by the characters from offset to end, or the dead state as soon as reached
+         */
+        int run(int state, char[] input, int offset, int end);
+
+        int run(int state, CharSequence input, int offset, int end);
+
+        boolean isAccepting(int state);
+    }
+
+    static final String PROGRAM = Program.class.getName().replace('.', '/');
+    static final String NAME = LRegExpCodegen.class.getPackage().getName().replace('.', '/') + "/LRegExpGeneratedDFA$";
+    static final AtomicInteger COUNTER = new AtomicInteger();
+    //the constants of the generated classes being initialized, by thread
+    static final ThreadLocal<Object[]> CONSTANTS = new ThreadLocal<>();
+
+    //the locals of the run methods
+    static final int STATE = 1;
+    static final int INPUT = 2;
+    static final int INDEX = 3;
+    static final int END = 4;
+
+    private LRegExpCodegen() {
+    }
+
+    /**
+     * @return a generated matcher for the expression, or an interpreted one if its automaton is too big to generate
+     */
+    public static ICharMatcher matcher(LRegExp.Expression<Character> expression) {
+        LRegExpDFA dfa;
+        try {
+            dfa = LRegExpDFA.compile(expression, LRegExpDFA.DEFAULT_MAX_STATES);
+        } catch (IllegalStateException tooManyStates) {
+            return new LRegExpMatcher(new LRegExpLazyCharDFA(expression, LRegExpFactory.simplifying()));
+        }
+        try {
+            return new LRegExpGeneratedMatcher(generate(dfa), dfa.dead);
+        } catch (IllegalStateException tooMuchCode) {
+            return new LRegExpMatcher(dfa);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the code of the automaton exceeds the limits of a method
+     */
+    public static Program generate(LRegExpDFA dfa) {
+        LRegExpClassWriter writer = new LRegExpClassWriter(NAME + COUNTER.getAndIncrement(), "java/lang/Object", PROGRAM);
+
+        LRegExpClassWriter.Code constructor = new LRegExpClassWriter.Code(1, 1);
+        constructor.op(ALOAD, 0);
+        constructor.u1(INVOKESPECIAL);
+        constructor.u2(writer.methodConstant("java/lang/Object", "<init>", "()V", false));
+        constructor.u1(RETURN);
+        writer.method("<init>", "()V", constructor);
+
+        writer.method("run", "(I[CII)I", run(dfa, -1));
+        writer.method("run", "(ILjava/lang/CharSequence;II)I",
+                run(dfa, writer.methodConstant("java/lang/CharSequence", "charAt", "(I)C", true)));
+        writer.method("isAccepting", "(I)Z", isAccepting(dfa));
+
+        return (Program) instantiate(writer.toByteArray(), new Object[0]);
+    }
+
+    /**
+     * Called by the static initializers of the generated classes, which are public so that the classes can be defined in their own loader.
+     * @return the constants of the generated class the current thread is initializing
+     */
+    public static Object[] constants() {
+        return CONSTANTS.get();
+    }
+
+    /**
+     * @return an instance of the generated class, its static initializer can read the constants with {@link #constants()}
+     */
+    static Object instantiate(byte[] bytes, Object[] constants) {
+        CONSTANTS.set(constants);
+        try {
+            return define(bytes).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new InternalError("LRegExp: cannot instantiate the generated class", e);
+        } finally {
+            CONSTANTS.remove();
+        }
+    }
+
+    /**
+     * @param charAt the constant of CharSequence.charAt, or -1 to read a char array
+     */
+    static LRegExpClassWriter.Code run(LRegExpDFA dfa, int charAt) {
+        char[] symbols = dfa.classes.symbols;
+        int columns = dfa.columns;
+        int other = dfa.classes.other();
+        LRegExpClassWriter.Code code = new LRegExpClassWriter.Code(2, 5);
+
+        int[] heads = new int[dfa.size];
+        for (int state = 0; state < dfa.size; state++) {
+            heads[state] = code.newLabel();
+        }
+        int unknown = code.newLabel();
+        code.op(ILOAD, STATE);
+        code.tableSwitch(0, heads, unknown);
+        code.mark(unknown);
+        code.op(ILOAD, STATE);
+        code.u1(IRETURN);
+
+        for (int state = 0; state < dfa.size; state++) {
+            code.mark(heads[state]);
+            if (state == dfa.dead) {
+                code.pushInt(state);
+                code.u1(IRETURN);
+                continue;
+            }
+            int exit = code.newLabel();
+            code.op(ILOAD, INDEX);
+            code.op(ILOAD, END);
+            code.branch(IF_ICMPGE, exit);
+            code.op(ALOAD, INPUT);
+            code.op(ILOAD, INDEX);
+            if (charAt < 0) {
+                code.u1(CALOAD);
+            } else {
+                code.u1(INVOKEINTERFACE);
+                code.u2(charAt);
+                code.u1(2);
+                code.u1(0);
+            }
+            code.u1(IINC);
+            code.u1(INDEX);
+            code.u1(1);
+
+            int row = state * columns;
+            int otherwise = heads[dfa.transitions[row + other]];
+            int span = symbols.length == 0 ? 0 : symbols[symbols.length - 1] - symbols[0] + 1;
+            if (symbols.length > 0 && span <= 2 * symbols.length + 8) {
+                int[] targets = new int[span];
+                Arrays.fill(targets, otherwise);
+                for (int symbolClass = 0; symbolClass < symbols.length; symbolClass++) {
+                    targets[symbols[symbolClass] - symbols[0]] = heads[dfa.transitions[row + symbolClass]];
+                }
+                code.tableSwitch(symbols[0], targets, otherwise);
+            } else {
+                //only the tokens which do not behave as the other characters
+                int count = 0;
+                int[] keys = new int[symbols.length];
+                int[] targets = new int[symbols.length];
+                for (int symbolClass = 0; symbolClass < symbols.length; symbolClass++) {
+                    int target = heads[dfa.transitions[row + symbolClass]];
+                    if (target == otherwise) continue;
+                    keys[count] = symbols[symbolClass];
+                    targets[count++] = target;
+                }
+                code.lookupSwitch(Arrays.copyOf(keys, count), Arrays.copyOf(targets, count), otherwise);
+            }
+
+            code.mark(exit);
+            code.pushInt(state);
+            code.u1(IRETURN);
+        }
+        return code;
+    }
+
+    static LRegExpClassWriter.Code isAccepting(LRegExpDFA dfa) {
+        LRegExpClassWriter.Code code = new LRegExpClassWriter.Code(1, 2);
+        int accept = code.newLabel();
+        int reject = code.newLabel();
+        int[] targets = new int[dfa.size];
+        for (int state = 0; state < dfa.size; state++) {
+            targets[state] = dfa.isAccepting(state) ? accept : reject;
+        }
+        code.op(ILOAD, STATE);
+        code.tableSwitch(0, targets, reject);
+        code.mark(accept);
+        code.u1(ICONST_1);
+        code.u1(IRETURN);
+        code.mark(reject);
+        code.u1(ICONST_0);
+        code.u1(IRETURN);
+        return code;
+    }
+
+    static Class<?> define(byte[] bytes) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            Method defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, Array.newInstance(option, 0).getClass());
+            MethodHandles.Lookup hidden = (MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true, Array.newInstance(option, 0));
+            return hidden.lookupClass();
+        } catch (ClassNotFoundException | NoSuchMethodException beforeJava15) {
+            return new Loader().define(bytes);
+        } catch (InvocationTargetException e) {
+            throw new InternalError("LRegExp: cannot define the generated automaton", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new InternalError("LRegExp: cannot define the generated automaton", e);
+        }
+    }
+
+    /**
+     * A loader for a single generated class, which only references public types,
+     * so that the class is unloaded once its program is unreachable, unlike a class defined in the loader of this one.
+     */
+    static final class Loader extends ClassLoader {
+        Loader() {
+            super(LRegExpCodegen.class.getClassLoader());
+        }
+
+        Class<?> define(byte[] bytes) {
+            return defineClass(null, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+
+/**
+ * A streaming matcher stepping the derivatives compiled by a {@link LRegExpCompiler},
+ * its state is the current derivative.
+ */
+public class LRegExpCompiledMatcher implements ICharMatcher {
+    final LRegExpCompiler<Character> compiler;
+    final LRegExp.Expression<Character> initial;
+    LRegExp.Expression<Character> state;
+
+    public LRegExpCompiledMatcher(LRegExp.Expression<Character> expression) {
+        this(new LRegExpCompiler<>(expression));
+    }
+
+    public LRegExpCompiledMatcher(LRegExpCompiler<Character> compiler) {
+        this.compiler = compiler;
+        this.initial = compiler.pattern();
+        this.state = initial;
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end && !isDead(); i++) {
+            state = compiler.derivative(state, chunk[i]);
+        }
+        return status();
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        for (int i = 0, end = chunk.length(); i < end && !isDead(); i++) {
+            state = compiler.derivative(state, chunk.charAt(i));
+        }
+        return status();
+    }
+
+    boolean isDead() {
+        return state instanceof LRegExp.Empty;
+    }
+
+    @Override
+    public Status status() {
+        if (state.isNullable()) return Status.ACCEPT;
+        return isDead() ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        state = initial;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+
+import static obp2.language.lregexp.automata.LRegExpClassWriter.*;
+
+/**
+ * Compiles the derivatives of a pattern into trees of {@link MethodHandle} combinators, instead of dispatching through the visitors:
+ * one handle of type {@code (Object)Expression} per subterm of the canonical pattern, built once at construction.
+ * The structure of the subterms, and the nullability of the operands of their concatenations, are resolved at compilation,
+ * what remains at each step are the token comparisons and the factory calls.
+ * The nullability needs no compilation, it is precomputed by the expressions.
+ *
+ * The handles are bound into the static final fields of a class generated for the pattern,
+ * so that the JIT treats them as constants and inlines their combinators.
+ * Its single {@link Step} switches on the precomputed hash of an expression and compares it to the subterms by identity.
+ * A derivative of the pattern is a spine of unions and concatenations over subterms of the pattern:
+ * the step walks the spine and dispatches the subterms it reaches.
+ * Neither the handles nor the transitions are cached per derivative, so the memory stays bounded by the size of the pattern,
+ * which suits the patterns too big to determinize.
+ * A compiler is not thread-safe.
+ */
+public class LRegExpCompiler<T> {
+    /**
+     * The interface implemented by the generated classes.
+     */
+    public interface Step {
+        /**
+         * @return the derivative of a subterm of the pattern by the token, or null if the expression is not a dispatched subterm
+         */
+        LRegExp.Expression<?> derivative(LRegExp.Expression<?> expression, Object token);
+    }
+
+    //the subterms dispatched by the generated class, from the pattern down; the others are derived along the spine
+    static final int MAX_DISPATCHED = 4096;
+    //the subterms dispatched per method, whose code stays far below the size the JIT compiles
+    static final int BUCKET = 128;
+
+    static final MethodType STEP = MethodType.methodType(LRegExp.Expression.class, Object.class);
+    static final MethodHandle EQUALS;
+    static final MethodHandle UNION;
+    static final MethodHandle CONCATENATION;
+
+    static final String NAME = LRegExpCompiler.class.getPackage().getName().replace('.', '/') + "/LRegExpCompiledStep$";
+    static final String STEP_NAME = Step.class.getName().replace('.', '/');
+    static final String EXPRESSION = LRegExp.Expression.class.getName().replace('.', '/');
+    static final String HANDLE = MethodHandle.class.getName().replace('.', '/');
+    static final String DERIVATIVE = "(L" + EXPRESSION + ";Ljava/lang/Object;)L" + EXPRESSION + ";";
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType binary = MethodType.methodType(LRegExp.Expression.class, LRegExp.Expression.class, LRegExp.Expression.class);
+        try {
+            EQUALS = lookup.findStatic(Objects.class, "equals", MethodType.methodType(boolean.class, Object.class, Object.class));
+            UNION = lookup.findVirtual(LRegExpFactory.class, "union", binary);
+            CONCATENATION = lookup.findVirtual(LRegExpFactory.class, "concatenation", binary);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final LRegExpFactory<T> factory;
+    final LRegExpDerivative<T> derivator;
+    final MethodHandle union;
+    final MethodHandle concatenation;
+    final MethodHandle empty;
+    final MethodHandle epsilon;
+    final LRegExp.Expression<T> pattern;
+    //the handles of the subterms of the pattern, by canonical instance, the steps read them from the generated class
+    final Map<LRegExp.Expression<T>, MethodHandle> compiled = new IdentityHashMap<>();
+    //the subterms of the pattern, each after its operands
+    final List<LRegExp.Expression<T>> subterms = new ArrayList<>();
+    final Step step;
+
+    public LRegExpCompiler(LRegExp.Expression<T> pattern) {
+        this(pattern, LRegExpFactory.simplifying());
+    }
+
+    public LRegExpCompiler(LRegExp.Expression<T> pattern, LRegExpFactory<T> factory) {
+        this.factory = factory;
+        this.derivator = new LRegExpDerivative<>(factory);
+        this.union = UNION.bindTo(factory);
+        this.concatenation = CONCATENATION.bindTo(factory);
+        this.empty = constant(factory.empty());
+        this.epsilon = constant(factory.epsilon());
+        this.pattern = factory.intern(pattern);
+        compile(this.pattern);
+        this.step = generate();
+    }
+
+    /**
+     * @return the canonical pattern
+     */
+    public LRegExp.Expression<T> pattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the canonical instance of the expression, the argument expected by {@link #derivative(LRegExp.Expression, Object)}
+     */
+    public LRegExp.Expression<T> intern(LRegExp.Expression<T> expression) {
+        return factory.intern(expression);
+    }
+
+    /**
+     * @return the derivative of a canonical derivative of the pattern by the token,
+     * through the handles of its subterms; the other expressions are derived by the visitor
+     */
+    @SuppressWarnings("unchecked")
+    public LRegExp.Expression<T> derivative(LRegExp.Expression<T> expression, T token) {
+        LRegExp.Expression<T> derivative = (LRegExp.Expression<T>) step.derivative(expression, token);
+        if (derivative != null) return derivative;
+        if (expression instanceof LRegExp.Union) {
+            List<LRegExp.Expression<T>> operands = ((LRegExp.Union<T>) expression).operands;
+            return factory.union(derivative(operands.get(0), token), derivative(operands.get(1), token));
+        }
+        if (expression instanceof LRegExp.Concatenation) {
+            List<LRegExp.Expression<T>> operands = ((LRegExp.Concatenation<T>) expression).operands;
+            LRegExp.Expression<T> result = factory.concatenation(derivative(operands.get(0), token), operands.get(1));
+            return operands.get(0).isNullable() ? factory.union(result, derivative(operands.get(1), token)) : result;
+        }
+        if (expression instanceof LRegExp.Empty || expression instanceof LRegExp.Epsilon) {
+            return factory.empty();
+        }
+        return expression.accept(derivator, token);
+    }
+
+    /**
+     * @return the handle of type {@code (Object)Expression} computing the derivatives of a subterm of the pattern, null for other expressions
+     */
+    public MethodHandle handle(LRegExp.Expression<T> subterm) {
+        return compiled.get(subterm);
+    }
+
+    MethodHandle compile(LRegExp.Expression<T> expression) {
+        MethodHandle handle = compiled.get(expression);
+        if (handle != null) return handle;
+        if (expression instanceof LRegExp.Empty || expression instanceof LRegExp.Epsilon) {
+            //D ∅ t ≜ ∅, D ε t ≜ ∅
+            handle = empty;
+        } else if (expression instanceof LRegExp.Token) {
+            //D a t ≜ ε if a = t, ∅ otherwise
+            Object token = ((LRegExp.Token<T>) expression).token;
+            handle = MethodHandles.guardWithTest(EQUALS.bindTo(token), epsilon, empty);
+        } else {
+            LRegExp.Composite<T> composite = (LRegExp.Composite<T>) expression;
+            LRegExp.Expression<T> lhs = composite.operands.get(0);
+            MethodHandle derivative = compile(lhs);
+            if (expression instanceof LRegExp.Union) {
+                //D (a | b) t ≜ D a t | D b t
+                handle = fork(union, derivative, compile(composite.operands.get(1)));
+            } else if (expression instanceof LRegExp.Concatenation) {
+                //D (a ∘ b) t ≜ D a t ∘ b | Δ a ∘ D b t, Δ a is known here
+                LRegExp.Expression<T> rhs = composite.operands.get(1);
+                handle = MethodHandles.filterArguments(MethodHandles.insertArguments(concatenation, 1, rhs), 0, derivative);
+                if (lhs.isNullable()) {
+                    handle = fork(union, handle, compile(rhs));
+                }
+            } else {
+                //D a* t ≜ D a t ∘ a*
+                handle = MethodHandles.filterArguments(MethodHandles.insertArguments(concatenation, 1, expression), 0, derivative);
+            }
+        }
+        compiled.put(expression, handle);
+        subterms.add(expression);
+        return handle;
+    }
+
+    /**
+     * Generates the class dispatching the subterms to their handles, held by its static final fields s<i>i</i> and h<i>i</i>.
+     */
+    Step generate() {
+        List<LRegExp.Expression<T>> dispatched = new ArrayList<>();
+        for (int i = subterms.size() - 1; i >= 0 && dispatched.size() < MAX_DISPATCHED; i--) {
+            LRegExp.Expression<T> subterm = subterms.get(i);
+            if (subterm instanceof LRegExp.Empty || subterm instanceof LRegExp.Epsilon) continue;
+            dispatched.add(subterm);
+        }
+        int minimum = (dispatched.size() + BUCKET - 1) / BUCKET;
+        int buckets = minimum <= 1 ? 1 : Integer.highestOneBit(minimum - 1) << 1;
+        List<List<Integer>> bucketed = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            bucketed.add(new ArrayList<>());
+        }
+        for (int i = 0; i < dispatched.size(); i++) {
+            bucketed.get(dispatched.get(i).hashCode() & (buckets - 1)).add(i);
+        }
+
+        String name = NAME + LRegExpCodegen.COUNTER.getAndIncrement();
+        LRegExpClassWriter writer = new LRegExpClassWriter(name, "java/lang/Object", STEP_NAME);
+        Object[] constants = new Object[2 * dispatched.size()];
+        for (int i = 0; i < dispatched.size(); i++) {
+            writer.field(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "s" + i, "L" + EXPRESSION + ";");
+            writer.field(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "h" + i, "L" + HANDLE + ";");
+            constants[2 * i] = dispatched.get(i);
+            constants[2 * i + 1] = compiled.get(dispatched.get(i));
+        }
+
+        LRegExpClassWriter.Code constructor = new LRegExpClassWriter.Code(1, 1);
+        constructor.op(ALOAD, 0);
+        constructor.u1(INVOKESPECIAL);
+        constructor.u2(writer.methodConstant("java/lang/Object", "<init>", "()V", false));
+        constructor.u1(RETURN);
+        writer.method("<init>", "()V", constructor);
+
+        //the fields are initialized by bucket, to keep each method small
+        LRegExpClassWriter.Code initializer = new LRegExpClassWriter.Code(1, 1);
+        initializer.u1(INVOKESTATIC);
+        initializer.u2(writer.methodConstant(LRegExpCodegen.class.getName().replace('.', '/'), "constants", "()[Ljava/lang/Object;", false));
+        initializer.op(ASTORE, 0);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            initializer.op(ALOAD, 0);
+            initializer.u1(INVOKESTATIC);
+            initializer.u2(writer.methodConstant(name, "init" + bucket, "([Ljava/lang/Object;)V", false));
+            writer.method(ACC_PRIVATE | ACC_STATIC, "init" + bucket, "([Ljava/lang/Object;)V", init(writer, name, bucketed.get(bucket)));
+            writer.method(ACC_PRIVATE | ACC_STATIC, "dispatch" + bucket, DERIVATIVE, dispatch(writer, name, dispatched, bucketed.get(bucket)));
+        }
+        initializer.u1(RETURN);
+        writer.method(ACC_STATIC, "<clinit>", "()V", initializer);
+
+        LRegExpClassWriter.Code derivative = new LRegExpClassWriter.Code(2, 3);
+        if (buckets > 1) {
+            int[] labels = new int[buckets];
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                labels[bucket] = derivative.newLabel();
+            }
+            derivative.op(ALOAD, 1);
+            derivative.u1(INVOKEVIRTUAL);
+            derivative.u2(writer.methodConstant(EXPRESSION, "hashCode", "()I", false));
+            derivative.pushInt(buckets - 1);
+            derivative.u1(IAND);
+            derivative.tableSwitch(0, labels, labels[0]);
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                derivative.mark(labels[bucket]);
+                callDispatch(writer, name, derivative, bucket);
+            }
+        } else {
+            callDispatch(writer, name, derivative, 0);
+        }
+        writer.method("derivative", DERIVATIVE, derivative);
+
+        return (Step) LRegExpCodegen.instantiate(writer.toByteArray(), constants);
+    }
+
+    static void callDispatch(LRegExpClassWriter writer, String name, LRegExpClassWriter.Code code, int bucket) {
+        code.op(ALOAD, 1);
+        code.op(ALOAD, 2);
+        code.u1(INVOKESTATIC);
+        code.u2(writer.methodConstant(name, "dispatch" + bucket, DERIVATIVE, false));
+        code.u1(ARETURN);
+    }
+
+    static LRegExpClassWriter.Code init(LRegExpClassWriter writer, String name, List<Integer> bucket) {
+        LRegExpClassWriter.Code code = new LRegExpClassWriter.Code(2, 1);
+        for (int i : bucket) {
+            code.op(ALOAD, 0);
+            code.pushInt(2 * i);
+            code.u1(AALOAD);
+            code.u1(CHECKCAST);
+            code.u2(writer.classConstant(EXPRESSION));
+            code.u1(PUTSTATIC);
+            code.u2(writer.fieldConstant(name, "s" + i, "L" + EXPRESSION + ";"));
+            code.op(ALOAD, 0);
+            code.pushInt(2 * i + 1);
+            code.u1(AALOAD);
+            code.u1(CHECKCAST);
+            code.u2(writer.classConstant(HANDLE));
+            code.u1(PUTSTATIC);
+            code.u2(writer.fieldConstant(name, "h" + i, "L" + HANDLE + ";"));
+        }
+        code.u1(RETURN);
+        return code;
+    }
+
+    //switches on the hash of the expression, then compares it to the subterms of that hash
+    static LRegExpClassWriter.Code dispatch(LRegExpClassWriter writer, String name, List<? extends LRegExp.Expression<?>> dispatched, List<Integer> bucket) {
+        LRegExpClassWriter.Code code = new LRegExpClassWriter.Code(2, 2);
+        Map<Integer, List<Integer>> byHash = new TreeMap<>();
+        for (int i : bucket) {
+            byHash.computeIfAbsent(dispatched.get(i).hashCode(), hash -> new ArrayList<>()).add(i);
+        }
+        int miss = code.newLabel();
+        int[] keys = new int[byHash.size()];
+        int[] labels = new int[byHash.size()];
+        int k = 0;
+        for (int hash : byHash.keySet()) {
+            keys[k] = hash;
+            labels[k++] = code.newLabel();
+        }
+        code.op(ALOAD, 0);
+        code.u1(INVOKEVIRTUAL);
+        code.u2(writer.methodConstant(EXPRESSION, "hashCode", "()I", false));
+        code.lookupSwitch(keys, labels, miss);
+        k = 0;
+        for (List<Integer> candidates : byHash.values()) {
+            code.mark(labels[k++]);
+            for (int i : candidates) {
+                int next = code.newLabel();
+                code.op(ALOAD, 0);
+                code.u1(GETSTATIC);
+                code.u2(writer.fieldConstant(name, "s" + i, "L" + EXPRESSION + ";"));
+                code.branch(IF_ACMPNE, next);
+                code.u1(GETSTATIC);
+                code.u2(writer.fieldConstant(name, "h" + i, "L" + HANDLE + ";"));
+                code.op(ALOAD, 1);
+                code.u1(INVOKEVIRTUAL);
+                code.u2(writer.methodConstant(HANDLE, "invokeExact", STEP.toMethodDescriptorString(), false));
+                code.u1(ARETURN);
+                code.mark(next);
+            }
+            code.branch(GOTO, miss);
+        }
+        code.mark(miss);
+        code.u1(ACONST_NULL);
+        code.u1(ARETURN);
+        return code;
+    }
+
+    /**
+     * @return the number of compiled subterms
+     */
+    public int size() {
+        return compiled.size();
+    }
+
+    //(t) -> combiner(first(t), second(t))
+    static MethodHandle fork(MethodHandle combiner, MethodHandle first, MethodHandle second) {
+        return MethodHandles.permuteArguments(MethodHandles.filterArguments(combiner, 0, first, second), STEP, 0, 0);
+    }
+
+    static MethodHandle constant(LRegExp.Expression<?> expression) {
+        return MethodHandles.dropArguments(MethodHandles.constant(LRegExp.Expression.class, expression), 0, Object.class);
+    }
+}
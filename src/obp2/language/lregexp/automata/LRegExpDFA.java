@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+import java.util.Arrays;
+
+/**
+ * A table-driven deterministic automaton, compiled ahead of time from the derivatives of an expression.
+ * The characters are mapped to the columns by their {@link LRegExpCharClasses}:
+ * one per distinct token of the expression, plus a last column for all the other characters,
+ * which the expression cannot tell apart.
+ * The transitions are stored row-major in a single array, {@code transitions[state * columns + column]},
+ * the initial state is 0.
+ */
+public class LRegExpDFA implements ICharAutomaton {
+    public static final int DEFAULT_MAX_STATES = 1 << 16;
+
+    final LRegExpCharClasses classes;
+    final int columns;
+    final int[] transitions;
+    final long[] accepting;
+    final int dead;
+    final int size;
+
+    LRegExpDFA(LRegExpCharClasses classes, int[] transitions, long[] accepting, int dead, int size) {
+        this.classes = classes;
+        this.columns = classes.size();
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.dead = dead;
+        this.size = size;
+    }
+
+    public static LRegExpDFA compile(LRegExp.Expression<Character> expression) {
+        return compile(expression, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Explores all the derivatives of the expression.
+     * @throws IllegalStateException if the expression has more than maxStates distinct derivatives
+     */
+    public static LRegExpDFA compile(LRegExp.Expression<Character> expression, int maxStates) {
+        LRegExpCharClasses classes = LRegExpCharClasses.of(expression);
+        int columns = classes.size();
+
+        LRegExpLazyDFA<Character> explorer = new LRegExpLazyDFA<>(expression, LRegExpFactory.simplifying(), classes.representatives());
+        int[] transitions = new int[16 * columns];
+        //the lazy automaton numbers the states breadth-first, from 0
+        for (int state = 0; state < explorer.size(); state++) {
+            if (state >= maxStates) {
+                throw new IllegalStateException("LRegExp: more than " + maxStates + " DFA states");
+            }
+            if ((state + 1) * columns > transitions.length) {
+                transitions = Arrays.copyOf(transitions, transitions.length * 2);
+            }
+            for (int column = 0; column < columns; column++) {
+                transitions[state * columns + column] = explorer.nextOfClass(state, column);
+            }
+        }
+
+        int size = explorer.size();
+        long[] accepting = new long[(size + 63) >>> 6];
+        int dead = -1;
+        for (int state = 0; state < size; state++) {
+            if (explorer.isAccepting(state)) {
+                accepting[state >>> 6] |= 1L << state;
+            }
+            if (explorer.isDead(state)) {
+                dead = state;
+            }
+        }
+        return new LRegExpDFA(classes, Arrays.copyOf(transitions, size * columns), accepting, dead, size);
+    }
+
+    @Override
+    public int initial() {
+        return 0;
+    }
+
+    public int columnOf(char c) {
+        return classes.classOf(c);
+    }
+
+    @Override
+    public int next(int state, char c) {
+        return transitions[state * columns + columnOf(c)];
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return (accepting[state >>> 6] & (1L << state)) != 0;
+    }
+
+    @Override
+    public boolean isDead(int state) {
+        return state == dead;
+    }
+
+    public boolean matches(CharSequence input) {
+        final int[] transitions = this.transitions;
+        final int columns = this.columns;
+        final int dead = this.dead;
+        int state = 0;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            state = transitions[state * columns + classes.classOf(input.charAt(i))];
+            if (state == dead) return false;
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * @return the number of states
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of character columns of the transition table
+     */
+    public int columns() {
+        return columns;
+    }
+
+    public LRegExpCharClasses classes() {
+        return classes;
+    }
+}
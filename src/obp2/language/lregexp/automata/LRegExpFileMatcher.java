@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Matches the content of UTF-8 files without loading them on the heap.
+ * The file is memory-mapped by windows, so files larger than 2 GB are supported,
+ * and each window is decoded on the fly into a small reusable buffer fed to a {@link ICharMatcher}.
+ * The reading stops as soon as the matcher is dead.
+ */
+public class LRegExpFileMatcher {
+    public static final long DEFAULT_WINDOW = 64L << 20;
+    public static final int DEFAULT_BUFFER = 8 << 10;
+
+    final long window;
+    final int buffer;
+
+    public LRegExpFileMatcher() {
+        this(DEFAULT_WINDOW, DEFAULT_BUFFER);
+    }
+
+    /**
+     * @param window the number of bytes mapped at once, at most {@link Integer#MAX_VALUE}
+     * @param buffer the number of characters decoded at once
+     */
+    public LRegExpFileMatcher(long window, int buffer) {
+        //a window must hold the longest UTF-8 sequence
+        if (window < 4 || window > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("LRegExp: invalid mapping window " + window);
+        }
+        if (buffer < 2) {
+            throw new IllegalArgumentException("LRegExp: invalid decoding buffer " + buffer);
+        }
+        this.window = window;
+        this.buffer = buffer;
+    }
+
+    public boolean matches(Path file, LRegExp.Expression<Character> expression) throws IOException {
+        return match(file, LRegExpMatcher.of(expression)) == ICharMatcher.Status.ACCEPT;
+    }
+
+    /**
+     * Feeds the content of the file to the matcher, in addition to what it has already read.
+     * The malformed input is replaced, as by {@link String#String(byte[], java.nio.charset.Charset)}.
+     * @return the status of the matcher after the file, or when it died
+     */
+    public ICharMatcher.Status match(Path file, ICharMatcher matcher) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(buffer);
+        ICharMatcher.Status status;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            do {
+                long length = Math.min(window, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, last);
+                    status = feed(matcher, chars);
+                    if (status == ICharMatcher.Status.DEAD) return status;
+                } while (result.isOverflow());
+                //a sequence cut by the end of the window is left in it, and mapped again with the next one
+                position += bytes.position();
+                if (last) {
+                    while (decoder.flush(chars).isOverflow()) {
+                        status = feed(matcher, chars);
+                    }
+                    return feed(matcher, chars);
+                }
+            } while (true);
+        }
+    }
+
+    static ICharMatcher.Status feed(ICharMatcher matcher, CharBuffer chars) {
+        chars.flip();
+        ICharMatcher.Status status = matcher.feed(chars);
+        chars.clear();
+        return status;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+/**
+ * A streaming matcher running a {@link LRegExpCodegen.Program}, its only state is the current automaton state.
+ */
+public class LRegExpGeneratedMatcher implements ICharMatcher {
+    //the long inputs are run in slices, so that the program is compiled as a whole, not entered on-stack in its jumps between states
+    static final int SLICE = 1024;
+
+    final LRegExpCodegen.Program program;
+    final int dead;
+    int state;
+
+    /**
+     * @param dead the dead state of the program, or -1 if none
+     */
+    public LRegExpGeneratedMatcher(LRegExpCodegen.Program program, int dead) {
+        this.program = program;
+        this.dead = dead;
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        int state = this.state;
+        for (int from = offset, end = offset + length; from < end && state != dead; from += SLICE) {
+            state = program.run(state, chunk, from, Math.min(end, from + SLICE));
+        }
+        this.state = state;
+        return status();
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        int state = this.state;
+        for (int from = 0, end = chunk.length(); from < end && state != dead; from += SLICE) {
+            state = program.run(state, chunk, from, Math.min(end, from + SLICE));
+        }
+        this.state = state;
+        return status();
+    }
+
+    @Override
+    public Status status() {
+        if (program.isAccepting(state)) return Status.ACCEPT;
+        return state == dead ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        state = 0;
+    }
+}
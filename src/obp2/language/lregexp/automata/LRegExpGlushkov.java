@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Glushkov position automaton of an expression with at most {@link #MAX_POSITIONS} token occurrences (positions).
+ * Its states are the positions plus an initial state, a position being reached by reading its token;
+ * the transitions follow the first, last and follow sets of the positions, computed bottom-up from the nullability of the subterms.
+ * <p>
+ * The sets are bitsets in one long, or two for more than 64 positions, so that the automaton is simulated bit-parallel
+ * (see {@link LRegExpShiftAndMatcher}): the successors of a set of positions are the union of the follow sets of its members,
+ * looked up a byte of positions at a time in {@code follow[chunk << 8 | byte]}, masked by the positions of the character read.
+ */
+public class LRegExpGlushkov {
+    public static final int MAX_POSITIONS = 128;
+
+    final LRegExpCharClasses classes;
+    final int positions;
+    final boolean wide;
+    final boolean nullable;
+    final long firstLo, firstHi;
+    final long lastLo, lastHi;
+    //the positions of the tokens of each character class
+    final long[] symbolLo, symbolHi;
+    //the union of the follow sets of the positions of a byte, per chunk of 8 positions
+    final long[] followLo, followHi;
+
+    LRegExpGlushkov(LRegExpCharClasses classes, int positions, Sets root, long[] symbolLo, long[] symbolHi, long[] followLo, long[] followHi) {
+        this.classes = classes;
+        this.positions = positions;
+        this.wide = positions > 64;
+        this.nullable = root.nullable;
+        this.firstLo = root.firstLo;
+        this.firstHi = root.firstHi;
+        this.lastLo = root.lastLo;
+        this.lastHi = root.lastHi;
+        this.symbolLo = symbolLo;
+        this.symbolHi = symbolHi;
+        this.followLo = followLo;
+        this.followHi = followHi;
+    }
+
+    /**
+     * @throws IllegalStateException if the expression has more than {@link #MAX_POSITIONS} tokens
+     */
+    public static LRegExpGlushkov compile(LRegExp.Expression<Character> expression) {
+        LRegExpCharClasses classes = LRegExpCharClasses.of(expression);
+        Builder builder = new Builder(classes);
+        Sets root = builder.visit(expression);
+        int positions = builder.tokens.size();
+
+        long[] symbolLo = new long[classes.size()];
+        long[] symbolHi = new long[classes.size()];
+        for (int position = 0; position < positions; position++) {
+            int symbolClass = classes.classOf(builder.tokens.get(position));
+            if (position < 64) {
+                symbolLo[symbolClass] |= 1L << position;
+            } else {
+                symbolHi[symbolClass] |= 1L << position;
+            }
+        }
+
+        int chunks = (positions + 7) >>> 3;
+        long[] followLo = new long[chunks << 8];
+        long[] followHi = new long[chunks << 8];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            for (int bits = 1; bits < 256; bits++) {
+                int position = (chunk << 3) + Integer.numberOfTrailingZeros(bits);
+                int rest = chunk << 8 | (bits & (bits - 1));
+                followLo[chunk << 8 | bits] = followLo[rest] | (position < positions ? builder.followLo[position] : 0);
+                followHi[chunk << 8 | bits] = followHi[rest] | (position < positions ? builder.followHi[position] : 0);
+            }
+        }
+        return new LRegExpGlushkov(classes, positions, root, symbolLo, symbolHi, followLo, followHi);
+    }
+
+    /**
+     * @return the number of positions
+     */
+    public int positions() {
+        return positions;
+    }
+
+    public LRegExpShiftAndMatcher matcher() {
+        return new LRegExpShiftAndMatcher(this);
+    }
+
+    //the nullability, first and last sets of a subterm
+    static class Sets {
+        boolean nullable;
+        //the language is empty, its positions are never reached
+        boolean empty;
+        long firstLo, firstHi;
+        long lastLo, lastHi;
+
+        Sets(boolean nullable) {
+            this.nullable = nullable;
+        }
+    }
+
+    static class Builder {
+        final LRegExpCharClasses classes;
+        final List<Character> tokens = new ArrayList<>();
+        final long[] followLo = new long[MAX_POSITIONS];
+        final long[] followHi = new long[MAX_POSITIONS];
+
+        Builder(LRegExpCharClasses classes) {
+            this.classes = classes;
+        }
+
+        Sets visit(LRegExp.Expression<Character> expression) {
+            if (expression instanceof LRegExp.Token) {
+                int position = tokens.size();
+                if (position == MAX_POSITIONS) {
+                    throw new IllegalStateException("LRegExp: more than " + MAX_POSITIONS + " positions");
+                }
+                tokens.add(((LRegExp.Token<Character>) expression).token);
+                Sets sets = new Sets(false);
+                if (position < 64) {
+                    sets.firstLo = sets.lastLo = 1L << position;
+                } else {
+                    sets.firstHi = sets.lastHi = 1L << position;
+                }
+                return sets;
+            }
+            if (!(expression instanceof LRegExp.Composite)) {
+                //the empty set or the empty word
+                Sets sets = new Sets(expression.isNullable());
+                sets.empty = expression instanceof LRegExp.Empty;
+                return sets;
+            }
+            List<LRegExp.Expression<Character>> operands = ((LRegExp.Composite<Character>) expression).operands;
+            Sets lhs = visit(operands.get(0));
+            if (expression instanceof LRegExp.KleeneStar) {
+                follow(lhs.lastLo, lhs.lastHi, lhs.firstLo, lhs.firstHi);
+                lhs.nullable = true;
+                lhs.empty = false;
+                return lhs;
+            }
+            Sets rhs = visit(operands.get(1));
+            Sets sets = new Sets(expression.isNullable());
+            if (expression instanceof LRegExp.Union) {
+                sets.empty = lhs.empty && rhs.empty;
+                sets.firstLo = lhs.firstLo | rhs.firstLo;
+                sets.firstHi = lhs.firstHi | rhs.firstHi;
+                sets.lastLo = lhs.lastLo | rhs.lastLo;
+                sets.lastHi = lhs.lastHi | rhs.lastHi;
+                return sets;
+            }
+            //concatenation
+            if (lhs.empty || rhs.empty) {
+                sets.empty = true;
+                return sets;
+            }
+            follow(lhs.lastLo, lhs.lastHi, rhs.firstLo, rhs.firstHi);
+            sets.firstLo = lhs.nullable ? lhs.firstLo | rhs.firstLo : lhs.firstLo;
+            sets.firstHi = lhs.nullable ? lhs.firstHi | rhs.firstHi : lhs.firstHi;
+            sets.lastLo = rhs.nullable ? lhs.lastLo | rhs.lastLo : rhs.lastLo;
+            sets.lastHi = rhs.nullable ? lhs.lastHi | rhs.lastHi : rhs.lastHi;
+            return sets;
+        }
+
+        //adds the positions (lo, hi) to the follow set of each position of (fromLo, fromHi)
+        void follow(long fromLo, long fromHi, long lo, long hi) {
+            for (long bits = fromLo; bits != 0; bits &= bits - 1) {
+                int position = Long.numberOfTrailingZeros(bits);
+                followLo[position] |= lo;
+                followHi[position] |= hi;
+            }
+            for (long bits = fromHi; bits != 0; bits &= bits - 1) {
+                int position = 64 + Long.numberOfTrailingZeros(bits);
+                followLo[position] |= lo;
+                followHi[position] |= hi;
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A primitive representation of the expressions over characters or code points, and of their derivatives.
+ * The terms are int identifiers into an arena of parallel arrays, hash-consed and simplified
+ * as by the {@link obp2.language.lregexp.model.LRegExpSimplifyingFactory}, and the tokens are stored as int code points.
+ * The derivatives are memoized per term and per class of the alphabet, which is fixed at construction:
+ * one class per token, plus one class for the other code points.
+ * So neither the terms nor the steps allocate once the reachable derivatives are known, and the tokens are compared by value.
+ */
+public class LRegExpIntTerms {
+    public static final int EMPTY = 0;
+    public static final int EPSILON = 1;
+
+    static final byte K_EMPTY = 0;
+    static final byte K_EPSILON = 1;
+    static final byte K_TOKEN = 2;
+    static final byte K_UNION = 3;
+    static final byte K_CONCATENATION = 4;
+    static final byte K_STAR = 5;
+
+    static final int LATIN1 = 256;
+
+    //the terms: kind, operands and nullability; a token keeps its code point in lhs and its class in rhs
+    byte[] kinds = new byte[64];
+    int[] lhs = new int[64];
+    int[] rhs = new int[64];
+    boolean[] nullable = new boolean[64];
+    int size;
+
+    //the hash-consing table, open addressing on the terms, -1 marks a free slot
+    int[] table = new int[128];
+
+    //the derivatives of each term by class, -1 when not computed yet
+    int[][] derivatives = new int[64][];
+
+    final int[] symbols;
+    final int[] latin1 = new int[LATIN1];
+    final int classes;
+
+    /**
+     * @param codePoints the tokens of the expressions which will be interned
+     */
+    public LRegExpIntTerms(int[] codePoints) {
+        symbols = Arrays.stream(codePoints).distinct().sorted().toArray();
+        classes = symbols.length + 1;
+        Arrays.fill(latin1, symbols.length);
+        for (int symbolClass = 0; symbolClass < symbols.length && symbols[symbolClass] < LATIN1; symbolClass++) {
+            latin1[symbols[symbolClass]] = symbolClass;
+        }
+        Arrays.fill(table, -1);
+        make(K_EMPTY, 0, 0);
+        make(K_EPSILON, 0, 0);
+    }
+
+    /**
+     * @return the arena of the terms of an expression over {@link Character} or {@link Integer} code points
+     */
+    public static LRegExpIntTerms of(LRegExp.Expression<?> expression) {
+        TreeSet<Integer> codePoints = new TreeSet<>();
+        collect(expression, codePoints);
+        return new LRegExpIntTerms(codePoints.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    static void collect(LRegExp.Expression<?> expression, TreeSet<Integer> codePoints) {
+        if (expression instanceof LRegExp.Token) {
+            codePoints.add(codePoint(((LRegExp.Token<?>) expression).token));
+        } else if (expression instanceof LRegExp.Composite) {
+            for (LRegExp.Expression<?> operand : ((LRegExp.Composite<?>) expression).operands) {
+                collect(operand, codePoints);
+            }
+        }
+    }
+
+    static int codePoint(Object token) {
+        if (token instanceof Character) return (Character) token;
+        if (token instanceof Integer) return (Integer) token;
+        throw new IllegalArgumentException("LRegExp: " + token + " is neither a character nor a code point");
+    }
+
+    /**
+     * @return the term of an expression over {@link Character} or {@link Integer} code points
+     */
+    public int intern(LRegExp.Expression<?> expression) {
+        return intern(expression, new IdentityHashMap<>());
+    }
+
+    int intern(LRegExp.Expression<?> expression, Map<LRegExp.Expression<?>, Integer> memo) {
+        Integer known = memo.get(expression);
+        if (known != null) return known;
+        int term;
+        if (expression instanceof LRegExp.Empty) {
+            term = EMPTY;
+        } else if (expression instanceof LRegExp.Epsilon) {
+            term = EPSILON;
+        } else if (expression instanceof LRegExp.Token) {
+            term = token(codePoint(((LRegExp.Token<?>) expression).token));
+        } else {
+            LRegExp.Composite<?> composite = (LRegExp.Composite<?>) expression;
+            int first = intern(composite.operands.get(0), memo);
+            if (expression instanceof LRegExp.KleeneStar) {
+                term = star(first);
+            } else if (expression instanceof LRegExp.Union) {
+                term = union(first, intern(composite.operands.get(1), memo));
+            } else {
+                term = concatenation(first, intern(composite.operands.get(1), memo));
+            }
+        }
+        memo.put(expression, term);
+        return term;
+    }
+
+    public int classOf(int codePoint) {
+        if (codePoint >= 0 && codePoint < LATIN1) return latin1[codePoint];
+        int symbolClass = Arrays.binarySearch(symbols, codePoint);
+        return symbolClass < 0 ? symbols.length : symbolClass;
+    }
+
+    public int token(int codePoint) {
+        int symbolClass = Arrays.binarySearch(symbols, codePoint);
+        if (symbolClass < 0) {
+            throw new IllegalArgumentException("LRegExp: the code point " + codePoint + " is not in the alphabet");
+        }
+        return make(K_TOKEN, codePoint, symbolClass);
+    }
+
+    public int union(int lhs, int rhs) {
+        if (lhs == EMPTY) return rhs;
+        if (rhs == EMPTY) return lhs;
+        if (lhs == rhs) return lhs;
+        if (kinds[lhs] != K_UNION && kinds[rhs] != K_UNION) {
+            return lhs < rhs ? make(K_UNION, lhs, rhs) : make(K_UNION, rhs, lhs);
+        }
+        //normalize modulo associativity, commutativity and idempotence: right-nested, ordered by identifier
+        int count = alternatives(rhs, alternatives(lhs, 0));
+        Arrays.sort(alternatives, 0, count);
+        int result = alternatives[count - 1];
+        for (int i = count - 2; i >= 0; i--) {
+            if (alternatives[i] != alternatives[i + 1]) {
+                result = make(K_UNION, alternatives[i], result);
+            }
+        }
+        return result;
+    }
+
+    //the scratch buffer of the union normalization
+    private int[] alternatives = new int[8];
+
+    int alternatives(int term, int count) {
+        if (kinds[term] == K_UNION) {
+            return alternatives(rhs[term], alternatives(lhs[term], count));
+        }
+        if (count == alternatives.length) {
+            alternatives = Arrays.copyOf(alternatives, count * 2);
+        }
+        alternatives[count] = term;
+        return count + 1;
+    }
+
+    public int concatenation(int lhs, int rhs) {
+        if (lhs == EMPTY || rhs == EMPTY) return EMPTY;
+        if (lhs == EPSILON) return rhs;
+        if (rhs == EPSILON) return lhs;
+        return make(K_CONCATENATION, lhs, rhs);
+    }
+
+    public int star(int operand) {
+        if (operand == EMPTY || operand == EPSILON) return EPSILON;
+        if (kinds[operand] == K_STAR) return operand;
+        return make(K_STAR, operand, 0);
+    }
+
+    int make(byte kind, int first, int second) {
+        int mask = table.length - 1;
+        int slot = hash(kind, first, second) & mask;
+        for (int term = table[slot]; term >= 0; term = table[slot]) {
+            if (kinds[term] == kind && lhs[term] == first && rhs[term] == second) return term;
+            slot = (slot + 1) & mask;
+        }
+
+        int term = size++;
+        if (term == kinds.length) {
+            int capacity = term * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            lhs = Arrays.copyOf(lhs, capacity);
+            rhs = Arrays.copyOf(rhs, capacity);
+            nullable = Arrays.copyOf(nullable, capacity);
+            derivatives = Arrays.copyOf(derivatives, capacity);
+        }
+        kinds[term] = kind;
+        lhs[term] = first;
+        rhs[term] = second;
+        switch (kind) {
+            case K_EPSILON:
+            case K_STAR:
+                nullable[term] = true;
+                break;
+            case K_UNION:
+                nullable[term] = nullable[first] || nullable[second];
+                break;
+            case K_CONCATENATION:
+                nullable[term] = nullable[first] && nullable[second];
+                break;
+            default:
+                nullable[term] = false;
+        }
+        table[slot] = term;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return term;
+    }
+
+    void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        for (int term = 0; term < size; term++) {
+            int slot = hash(kinds[term], lhs[term], rhs[term]) & mask;
+            while (table[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = term;
+        }
+    }
+
+    static int hash(byte kind, int first, int second) {
+        int hash = kind * 0x9E3779B9 + first * 0x85EBCA6B + second * 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return the derivative of the term by the code points of the class
+     */
+    public int derivative(int term, int symbolClass) {
+        int[] row = derivatives[term];
+        if (row == null) {
+            row = new int[classes];
+            Arrays.fill(row, -1);
+            derivatives[term] = row;
+        }
+        int result = row[symbolClass];
+        if (result >= 0) return result;
+
+        int first = lhs[term];
+        int second = rhs[term];
+        switch (kinds[term]) {
+            case K_TOKEN:
+                result = second == symbolClass ? EPSILON : EMPTY;
+                break;
+            case K_UNION:
+                result = union(derivative(first, symbolClass), derivative(second, symbolClass));
+                break;
+            case K_CONCATENATION:
+                result = concatenation(derivative(first, symbolClass), second);
+                if (nullable[first]) {
+                    result = union(result, derivative(second, symbolClass));
+                }
+                break;
+            case K_STAR:
+                result = concatenation(derivative(first, symbolClass), term);
+                break;
+            default:
+                result = EMPTY;
+        }
+        row[symbolClass] = result;
+        return result;
+    }
+
+    public int next(int term, int codePoint) {
+        return derivative(term, classOf(codePoint));
+    }
+
+    public boolean isNullable(int term) {
+        return nullable[term];
+    }
+
+    /**
+     * @return the number of terms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of classes of the alphabet
+     */
+    public int classes() {
+        return classes;
+    }
+}
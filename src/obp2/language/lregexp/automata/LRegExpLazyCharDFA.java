@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+/**
+ * A {@link LRegExpLazyDFA} over the {@link LRegExpCharClasses} of an expression:
+ * the characters are not boxed, and a state is explored once per class.
+ */
+public class LRegExpLazyCharDFA implements ICharAutomaton {
+    final LRegExpCharClasses classes;
+    final LRegExpLazyDFA<Character> dfa;
+
+    public LRegExpLazyCharDFA(LRegExp.Expression<Character> expression, LRegExpFactory<Character> factory) {
+        this.classes = LRegExpCharClasses.of(expression);
+        this.dfa = new LRegExpLazyDFA<>(expression, factory, classes.representatives());
+    }
+
+    @Override
+    public int initial() {
+        return dfa.initial();
+    }
+
+    @Override
+    public int next(int state, char c) {
+        return dfa.nextOfClass(state, classes.classOf(c));
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return dfa.isAccepting(state);
+    }
+
+    @Override
+    public boolean isDead(int state) {
+        return dfa.isDead(state);
+    }
+
+    public LRegExpLazyDFA<Character> dfa() {
+        return dfa;
+    }
+
+    public LRegExpCharClasses classes() {
+        return classes;
+    }
+}
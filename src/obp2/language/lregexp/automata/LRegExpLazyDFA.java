@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import obp2.language.lregexp.model.LRegExpMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A deterministic automaton whose states are the derivatives of an expression, built on demand.
+ * Each distinct normalized derivative is numbered when first reached,
+ * and its transitions and acceptance are remembered as they are discovered,
+ * so that a (state, token) pair seen before costs a single table lookup.
+ * The automaton is not thread-safe, even its lookups may add states.
+ */
+public class LRegExpLazyDFA<T> {
+    final LRegExpFactory<T> factory;
+    final LRegExpDerivative<T> derivator;
+
+    final Map<LRegExp.Expression<T>, Integer> ids = new HashMap<>();
+    final List<LRegExp.Expression<T>> states = new ArrayList<>();
+    final List<Map<T, Integer>> transitions = new ArrayList<>();
+    boolean[] accepting = new boolean[16];
+
+    //the transitions by symbol class, for the automata built over an alphabet partition
+    final List<T> representatives;
+    final List<int[]> rows = new ArrayList<>();
+
+    final int initial;
+
+    public LRegExpLazyDFA(LRegExp.Expression<T> expression) {
+        this(expression, LRegExpFactory.simplifying());
+    }
+
+    /**
+     * @param factory should normalize the terms, otherwise the number of states may not be finite
+     */
+    public LRegExpLazyDFA(LRegExp.Expression<T> expression, LRegExpFactory<T> factory) {
+        this(expression, factory, null);
+    }
+
+    /**
+     * @param representatives a symbol of each class of an alphabet partition (see {@link LRegExpAlphabet}),
+     *                        enabling the transitions by class
+     */
+    public LRegExpLazyDFA(LRegExp.Expression<T> expression, LRegExpFactory<T> factory, List<T> representatives) {
+        this.factory = factory;
+        this.derivator = new LRegExpDerivative<>(factory);
+        this.representatives = representatives;
+        this.initial = stateOf(factory.intern(expression));
+    }
+
+    public int initial() {
+        return initial;
+    }
+
+    /**
+     * @return the number of the derivative, numbering it if it was not reached before
+     */
+    public int stateOf(LRegExp.Expression<T> expression) {
+        Integer id = ids.get(expression);
+        if (id != null) return id;
+
+        int state = states.size();
+        states.add(expression);
+        transitions.add(new HashMap<>());
+        if (representatives != null) {
+            int[] row = new int[representatives.size()];
+            Arrays.fill(row, -1);
+            rows.add(row);
+        }
+        if (state == accepting.length) {
+            accepting = Arrays.copyOf(accepting, state * 2);
+        }
+        accepting[state] = expression.isNullable();
+        ids.put(expression, state);
+        if (LRegExpMetrics.ENABLED) {
+            LRegExpMetrics.state(expression);
+        }
+        return state;
+    }
+
+    public int next(int state, T token) {
+        Map<T, Integer> row = transitions.get(state);
+        Integer target = row.get(token);
+        if (target != null) {
+            if (LRegExpMetrics.ENABLED) {
+                LRegExpMetrics.hit();
+            }
+            return target;
+        }
+
+        int result = stateOf(derivative(state, token));
+        row.put(token, result);
+        return result;
+    }
+
+    /**
+     * @return the target of the transition by the symbols of the class,
+     * the derivative is computed once per class instead of once per symbol
+     */
+    public int nextOfClass(int state, int symbolClass) {
+        int[] row = rows.get(state);
+        int target = row[symbolClass];
+        if (target >= 0) {
+            if (LRegExpMetrics.ENABLED) {
+                LRegExpMetrics.hit();
+            }
+            return target;
+        }
+
+        target = stateOf(derivative(state, representatives.get(symbolClass)));
+        row[symbolClass] = target;
+        return target;
+    }
+
+    //the target expression of a transition, overridden by the unanchored automata of the LRegExpSearcher
+    LRegExp.Expression<T> derivative(int state, T token) {
+        if (LRegExpMetrics.ENABLED) {
+            LRegExpMetrics.miss();
+        }
+        return LRegExpMetrics.derivative(derivator, states.get(state), token);
+    }
+
+    /**
+     * @return the number of symbol classes, 0 if the automaton has no alphabet partition
+     */
+    public int classes() {
+        return representatives == null ? 0 : representatives.size();
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * @return true if no word is accepted from the state, its derivative is then ∅
+     */
+    public boolean isDead(int state) {
+        return states.get(state) instanceof LRegExp.Empty;
+    }
+
+    public LRegExp.Expression<T> expression(int state) {
+        return states.get(state);
+    }
+
+    /**
+     * @return the number of states discovered so far
+     */
+    public int size() {
+        return states.size();
+    }
+}
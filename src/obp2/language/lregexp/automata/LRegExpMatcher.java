@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+/**
+ * A streaming matcher running a deterministic automaton, its only state is the current automaton state.
+ * The input is not consumed further once the automaton is in a dead state.
+ */
+public class LRegExpMatcher implements ICharMatcher {
+    final ICharAutomaton automaton;
+    int state;
+
+    public LRegExpMatcher(ICharAutomaton automaton) {
+        this.automaton = automaton;
+        this.state = automaton.initial();
+    }
+
+    /**
+     * @return a matcher running the derivatives of the expression as a lazy DFA, over its character classes
+     */
+    public static LRegExpMatcher of(LRegExp.Expression<Character> expression) {
+        return new LRegExpMatcher(new LRegExpLazyCharDFA(expression, LRegExpFactory.simplifying()));
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        int state = this.state;
+        for (int i = offset, end = offset + length; i < end && !automaton.isDead(state); i++) {
+            state = automaton.next(state, chunk[i]);
+        }
+        this.state = state;
+        return status();
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        int state = this.state;
+        for (int i = 0, end = chunk.length(); i < end && !automaton.isDead(state); i++) {
+            state = automaton.next(state, chunk.charAt(i));
+        }
+        this.state = state;
+        return status();
+    }
+
+    @Override
+    public Status status() {
+        if (automaton.isAccepting(state)) return Status.ACCEPT;
+        return automaton.isDead(state) ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        state = automaton.initial();
+    }
+
+    public ICharAutomaton automaton() {
+        return automaton;
+    }
+}
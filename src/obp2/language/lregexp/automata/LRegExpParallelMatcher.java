@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a {@link LRegExpDFA} over a single large input using all the cores.
+ * The input is split in chunks, and each chunk computes, on a fork-join pool, the mapping it induces from
+ * the state it starts in to the state it ends in. The chunk starting the input only runs from the initial state,
+ * the others run from all the states at once, merging the runs as soon as they reach the same state.
+ * The final state is obtained by composing the mappings from left to right.
+ */
+public class LRegExpParallelMatcher {
+    public static final int DEFAULT_MIN_CHUNK = 1 << 16;
+    //the period, in characters, at which the converging runs are merged
+    static final int MERGE_PERIOD = 64;
+
+    final LRegExpDFA dfa;
+    final ForkJoinPool pool;
+    final int minChunk;
+
+    public LRegExpParallelMatcher(LRegExpDFA dfa) {
+        this(dfa, ForkJoinPool.commonPool(), DEFAULT_MIN_CHUNK);
+    }
+
+    public LRegExpParallelMatcher(LRegExpDFA dfa, ForkJoinPool pool, int minChunk) {
+        this.dfa = dfa;
+        this.pool = pool;
+        this.minChunk = Math.max(1, minChunk);
+    }
+
+    public boolean matches(CharSequence input) {
+        return dfa.isAccepting(run(input));
+    }
+
+    /**
+     * @return the state reached from the initial state after reading the input
+     */
+    public int run(CharSequence input) {
+        int chunk = Math.max(minChunk, input.length() / (4 * pool.getParallelism()) + 1);
+        if (input.length() <= chunk) {
+            return run(dfa.initial(), input, 0, input.length());
+        }
+        return pool.invoke(new Mapping(input, 0, input.length(), chunk))[dfa.initial()];
+    }
+
+    int run(int state, CharSequence input, int from, int to) {
+        final int[] transitions = dfa.transitions;
+        final int columns = dfa.columns;
+        final LRegExpCharClasses classes = dfa.classes;
+        for (int i = from; i < to && state != dfa.dead; i++) {
+            state = transitions[state * columns + classes.classOf(input.charAt(i))];
+        }
+        return state;
+    }
+
+    /**
+     * @return the state reached from each state after reading the input
+     */
+    int[] map(CharSequence input, int from, int to) {
+        final int[] transitions = dfa.transitions;
+        final int columns = dfa.columns;
+        final LRegExpCharClasses classes = dfa.classes;
+        int size = dfa.size();
+
+        //the distinct states of the runs, and the run of each starting state
+        int[] runs = new int[size];
+        int[] runOf = new int[size];
+        for (int state = 0; state < size; state++) {
+            runs[state] = state;
+            runOf[state] = state;
+        }
+        int count = size;
+        int[] merged = new int[size];
+        int[] mergedRuns = new int[size];
+
+        for (int i = from; i < to; i++) {
+            int column = classes.classOf(input.charAt(i));
+            for (int run = 0; run < count; run++) {
+                runs[run] = transitions[runs[run] * columns + column];
+            }
+            if (count > 1 && (i - from) % MERGE_PERIOD == MERGE_PERIOD - 1) {
+                count = merge(runs, count, runOf, merged, mergedRuns);
+            }
+        }
+
+        int[] mapping = new int[size];
+        for (int state = 0; state < size; state++) {
+            mapping[state] = runs[runOf[state]];
+        }
+        return mapping;
+    }
+
+    //merges the runs which are in the same state, returns the number of distinct runs
+    static int merge(int[] runs, int count, int[] runOf, int[] index, int[] renumbering) {
+        Arrays.fill(index, -1);
+        int distinct = 0;
+        for (int run = 0; run < count; run++) {
+            int state = runs[run];
+            if (index[state] < 0) {
+                index[state] = distinct;
+                runs[distinct++] = state;
+            }
+            renumbering[run] = index[state];
+        }
+        for (int state = 0; state < runOf.length; state++) {
+            runOf[state] = renumbering[runOf[state]];
+        }
+        return distinct;
+    }
+
+    class Mapping extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        final CharSequence input;
+        final int from;
+        final int to;
+        final int chunk;
+
+        Mapping(CharSequence input, int from, int to, int chunk) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunk) {
+                if (from > 0) return map(input, from, to);
+                //the first chunk only matters from the initial state
+                int[] mapping = new int[dfa.size()];
+                Arrays.fill(mapping, -1);
+                mapping[dfa.initial()] = run(dfa.initial(), input, from, to);
+                return mapping;
+            }
+            int middle = from + (to - from) / 2;
+            Mapping left = new Mapping(input, from, middle, chunk);
+            Mapping right = new Mapping(input, middle, to, chunk);
+            left.fork();
+            int[] rightMapping = right.compute();
+            int[] leftMapping = left.join();
+
+            for (int state = 0; state < leftMapping.length; state++) {
+                leftMapping[state] = leftMapping[state] < 0 ? -1 : rightMapping[leftMapping[state]];
+            }
+            return leftMapping;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+
+import java.util.*;
+
+/**
+ * A lazy deterministic automaton matching several expressions at once.
+ * Its states are the tuples of the derivatives of the expressions, built on demand,
+ * each carrying the bitset of the indices of the expressions accepting the input read so far.
+ * The transitions are memoized per class of the shared {@link LRegExpAlphabet},
+ * so a single pass over the input tells which expressions match it.
+ */
+public class LRegExpPatternSet<T> {
+    final List<LRegExp.Expression<T>> patterns;
+    final LRegExpFactory<T> factory;
+    final LRegExpDerivative<T> derivator;
+    final LRegExpAlphabet<T> alphabet;
+
+    final Map<List<LRegExp.Expression<T>>, Integer> ids = new HashMap<>();
+    final List<List<LRegExp.Expression<T>>> states = new ArrayList<>();
+    final List<long[]> accepting = new ArrayList<>();
+    final List<int[]> rows = new ArrayList<>();
+    final BitSet dead = new BitSet();
+
+    final int initial;
+
+    public LRegExpPatternSet(List<LRegExp.Expression<T>> patterns) {
+        this(patterns, LRegExpFactory.simplifying(), LRegExpAlphabet.of(patterns));
+    }
+
+    /**
+     * @param alphabet should tell apart all the tokens of the patterns
+     */
+    public LRegExpPatternSet(List<LRegExp.Expression<T>> patterns, LRegExpFactory<T> factory, LRegExpAlphabet<T> alphabet) {
+        this.factory = factory;
+        this.derivator = new LRegExpDerivative<>(factory);
+        this.alphabet = alphabet;
+        List<LRegExp.Expression<T>> interned = new ArrayList<>(patterns.size());
+        for (LRegExp.Expression<T> pattern : patterns) {
+            interned.add(factory.intern(pattern));
+        }
+        this.patterns = Collections.unmodifiableList(interned);
+        this.initial = stateOf(this.patterns);
+    }
+
+    public int initial() {
+        return initial;
+    }
+
+    int stateOf(List<LRegExp.Expression<T>> derivatives) {
+        Integer id = ids.get(derivatives);
+        if (id != null) return id;
+
+        int state = states.size();
+        long[] bits = new long[(derivatives.size() + 63) >>> 6];
+        boolean isDead = true;
+        for (int i = 0; i < derivatives.size(); i++) {
+            LRegExp.Expression<T> derivative = derivatives.get(i);
+            if (derivative.isNullable()) {
+                bits[i >>> 6] |= 1L << i;
+            }
+            isDead &= derivative instanceof LRegExp.Empty;
+        }
+        states.add(derivatives);
+        accepting.add(bits);
+        int[] row = new int[alphabet.size()];
+        Arrays.fill(row, -1);
+        rows.add(row);
+        dead.set(state, isDead);
+        ids.put(derivatives, state);
+        return state;
+    }
+
+    public int nextOfClass(int state, int symbolClass) {
+        int[] row = rows.get(state);
+        int target = row[symbolClass];
+        if (target >= 0) return target;
+
+        T symbol = alphabet.representative(symbolClass);
+        List<LRegExp.Expression<T>> source = states.get(state);
+        List<LRegExp.Expression<T>> derivatives = new ArrayList<>(source.size());
+        for (LRegExp.Expression<T> expression : source) {
+            derivatives.add(expression.accept(derivator, symbol));
+        }
+        target = stateOf(derivatives);
+        row[symbolClass] = target;
+        return target;
+    }
+
+    public int next(int state, T symbol) {
+        return nextOfClass(state, alphabet.classOf(symbol));
+    }
+
+    /**
+     * @return the bitset of the indices of the patterns accepting in the state, it must not be modified
+     */
+    public long[] accepting(int state) {
+        return accepting.get(state);
+    }
+
+    public BitSet acceptingSet(int state) {
+        return BitSet.valueOf(accepting.get(state));
+    }
+
+    public boolean isAccepting(int state, int pattern) {
+        return (accepting.get(state)[pattern >>> 6] & (1L << pattern)) != 0;
+    }
+
+    /**
+     * @return true if no pattern accepts any continuation
+     */
+    public boolean isDead(int state) {
+        return dead.get(state);
+    }
+
+    public List<LRegExp.Expression<T>> patterns() {
+        return patterns;
+    }
+
+    public LRegExpAlphabet<T> alphabet() {
+        return alphabet;
+    }
+
+    /**
+     * @return the number of states discovered so far
+     */
+    public int size() {
+        return states.size();
+    }
+}
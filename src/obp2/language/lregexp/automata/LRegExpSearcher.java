@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+import obp2.language.lregexp.model.LRegExpReverse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Searches a text for the leftmost-longest, non-overlapping matches of an expression, with three automata over its derivatives:
+ * <ul>
+ *     <li>the forward automaton of Σ* ∘ r, whose states are the derivatives joined with r, D t s | r;
+ *     it accepts at the ends of the matches, a text where it never accepts has no match,
+ *     and its last accepting position bounds the ends;</li>
+ *     <li>the same automaton for the reversed expression, run backward from the end of the text;
+ *     it accepts at the starts of the matches, which are all marked in a single pass;</li>
+ *     <li>the lazy DFA of r, run anchored from the leftmost start to its longest end.</li>
+ * </ul>
+ * The two unanchored passes are linear in the text, whatever the number of matches.
+ * An anchored run stops at the first dead state or at the last end, so the whole search is linear
+ * as long as the runs do not go far past the ends of their matches; patterns whose runs do, like (a*b)|a over a run of a,
+ * take time quadratic in the length of that run, as with any leftmost-longest search which does not backtrack.
+ * Not thread-safe.
+ */
+public class LRegExpSearcher {
+    final LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+    final LRegExpCharClasses classes;
+    final Unanchored forward;
+    final Unanchored backward;
+    final LRegExpLazyDFA<Character> anchored;
+
+    public LRegExpSearcher(LRegExp.Expression<Character> expression) {
+        this.classes = LRegExpCharClasses.of(expression);
+        LRegExp.Expression<Character> pattern = factory.intern(expression);
+        this.forward = new Unanchored(pattern, factory, classes.representatives());
+        this.backward = new Unanchored(new LRegExpReverse<>(factory).reverse(pattern), factory, classes.representatives());
+        this.anchored = new LRegExpLazyDFA<>(pattern, factory, classes.representatives());
+    }
+
+    /**
+     * A match, from start inclusive to end exclusive.
+     */
+    public static final class Span {
+        public final int start;
+        public final int end;
+
+        public Span(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Span)) return false;
+            Span span = (Span) o;
+            return start == span.start && end == span.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * start + end;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+
+    public Span find(CharSequence text) {
+        return find(text, 0);
+    }
+
+    /**
+     * @return the leftmost-longest match starting at from or after, null if none
+     * @throws IndexOutOfBoundsException if from is negative or greater than the length of the text
+     */
+    public Span find(CharSequence text, int from) {
+        if (from < 0 || from > text.length()) {
+            throw new IndexOutOfBoundsException("LRegExp: search from " + from + " in a text of length " + text.length());
+        }
+        int last = lastAccepting(text, from);
+        if (last < 0) return null;
+        long[] starts = starts(text, from);
+        return longest(text, nextStart(starts, from), last);
+    }
+
+    /**
+     * @return the leftmost-longest matches, each searched after the end of the previous one,
+     * or one character further after an empty match
+     */
+    public List<Span> findAll(CharSequence text) {
+        List<Span> matches = new ArrayList<>();
+        int last = lastAccepting(text, 0);
+        if (last < 0) return matches;
+        long[] starts = starts(text, 0);
+        for (int from = 0, start; from <= text.length() && (start = nextStart(starts, from)) >= 0; ) {
+            Span match = longest(text, start, last);
+            matches.add(match);
+            from = match.end > match.start ? match.end : match.end + 1;
+        }
+        return matches;
+    }
+
+    static int nextStart(long[] starts, int from) {
+        int word = from >>> 6;
+        if (word >= starts.length) return -1;
+        long bits = starts[word] & -1L << from;
+        while (bits == 0) {
+            if (++word == starts.length) return -1;
+            bits = starts[word];
+        }
+        return word << 6 | Long.numberOfTrailingZeros(bits);
+    }
+
+    //the longest match from a start, which has one, ending at last at most
+    Span longest(CharSequence text, int start, int last) {
+        int state = anchored.initial();
+        int end = start;
+        for (int i = start; i < last && !anchored.isDead(state); i++) {
+            state = anchored.nextOfClass(state, classes.classOf(text.charAt(i)));
+            if (anchored.isAccepting(state)) {
+                end = i + 1;
+            }
+        }
+        return new Span(start, end);
+    }
+
+    //the last position of the text, from from, where a match ends, -1 if none
+    int lastAccepting(CharSequence text, int from) {
+        int state = forward.initial();
+        int last = forward.isAccepting(state) ? from : -1;
+        for (int i = from, end = text.length(); i < end; i++) {
+            state = forward.nextOfClass(state, classes.classOf(text.charAt(i)));
+            if (forward.isAccepting(state)) {
+                last = i + 1;
+            }
+        }
+        return last;
+    }
+
+    //the positions of the text, from from, where a match starts, read backward on the reversed pattern
+    long[] starts(CharSequence text, int from) {
+        int length = text.length();
+        long[] starts = new long[(length >>> 6) + 1];
+        int state = backward.initial();
+        if (backward.isAccepting(state)) {
+            starts[length >>> 6] |= 1L << length;
+        }
+        for (int i = length - 1; i >= from; i--) {
+            state = backward.nextOfClass(state, classes.classOf(text.charAt(i)));
+            if (backward.isAccepting(state)) {
+                starts[i >>> 6] |= 1L << i;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * The lazy DFA of Σ* ∘ pattern, whose transitions join the derivatives with the pattern.
+     */
+    static class Unanchored extends LRegExpLazyDFA<Character> {
+        final LRegExp.Expression<Character> pattern;
+
+        Unanchored(LRegExp.Expression<Character> pattern, LRegExpFactory<Character> factory, List<Character> representatives) {
+            super(pattern, factory, representatives);
+            this.pattern = factory.intern(pattern);
+        }
+
+        @Override
+        LRegExp.Expression<Character> derivative(int state, Character token) {
+            return factory.union(super.derivative(state, token), pattern);
+        }
+    }
+}
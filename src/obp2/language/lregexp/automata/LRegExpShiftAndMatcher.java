@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.automata;
+
+/**
+ * A streaming matcher simulating a {@link LRegExpGlushkov} automaton bit-parallel, in the manner of Shift-And:
+ * its state is the set of active positions, in one or two longs, and a character costs a table lookup per non-empty byte
+ * of the set and a mask by the positions of the character, without allocation.
+ */
+public class LRegExpShiftAndMatcher implements ICharMatcher {
+    final LRegExpGlushkov automaton;
+    //no character was read yet, the automaton is in its initial state
+    boolean initial = true;
+    long lo, hi;
+
+    public LRegExpShiftAndMatcher(LRegExpGlushkov automaton) {
+        this.automaton = automaton;
+    }
+
+    @Override
+    public Status feed(char[] chunk, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end && !isDead(); i++) {
+            step(chunk[i]);
+        }
+        return status();
+    }
+
+    @Override
+    public Status feed(CharSequence chunk) {
+        for (int i = 0, end = chunk.length(); i < end && !isDead(); i++) {
+            step(chunk.charAt(i));
+        }
+        return status();
+    }
+
+    void step(char c) {
+        LRegExpGlushkov automaton = this.automaton;
+        int symbolClass = automaton.classes.classOf(c);
+        long nextLo, nextHi = 0;
+        if (initial) {
+            initial = false;
+            nextLo = automaton.firstLo;
+            nextHi = automaton.firstHi;
+        } else if (!automaton.wide) {
+            nextLo = 0;
+            int chunk = 0;
+            for (long bits = lo; bits != 0; bits >>>= 8, chunk += 256) {
+                nextLo |= automaton.followLo[chunk | (int) bits & 0xFF];
+            }
+        } else {
+            nextLo = 0;
+            int chunk = 0;
+            for (long bits = lo; bits != 0; bits >>>= 8, chunk += 256) {
+                int index = chunk | (int) bits & 0xFF;
+                nextLo |= automaton.followLo[index];
+                nextHi |= automaton.followHi[index];
+            }
+            chunk = 8 << 8;
+            for (long bits = hi; bits != 0; bits >>>= 8, chunk += 256) {
+                int index = chunk | (int) bits & 0xFF;
+                nextLo |= automaton.followLo[index];
+                nextHi |= automaton.followHi[index];
+            }
+        }
+        lo = nextLo & automaton.symbolLo[symbolClass];
+        hi = nextHi & automaton.symbolHi[symbolClass];
+    }
+
+    boolean isDead() {
+        if (initial) return !automaton.nullable && automaton.firstLo == 0 && automaton.firstHi == 0;
+        return lo == 0 && hi == 0;
+    }
+
+    @Override
+    public Status status() {
+        boolean accepting = initial ? automaton.nullable : ((lo & automaton.lastLo) | (hi & automaton.lastHi)) != 0;
+        if (accepting) return Status.ACCEPT;
+        return isDead() ? Status.DEAD : Status.REJECT;
+    }
+
+    @Override
+    public void reset() {
+        initial = true;
+        lo = hi = 0;
+    }
+}
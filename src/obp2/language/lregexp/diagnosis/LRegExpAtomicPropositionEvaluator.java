@@ -27,22 +27,51 @@ package obp2.language.lregexp.diagnosis;
 import obp2.language.lregexp.model.LRegExp;
 import obp2.language.lregexp.runtime.LRegExpAction;
 import obp2.language.lregexp.runtime.LRegExpConfiguration;
+import obp2.language.lregexp.runtime.LRegExpStateGraph;
+import obp2.language.lregexp.runtime.LRegExpTransitionRelation;
 import obp2.runtime.core.IAtomicPropositionsEvaluator;
 import obp2.runtime.core.defaults.DefaultLanguageService;
 
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates the atomic propositions on the states of a {@link LRegExpStateGraph}:
+ * "accepting" (or "nullable"), "dead", and 'c, the next token can be c.
+ * A proposition c holds on a transition reading c, never if c is not a token of the program.
+ * The state propositions are evaluated once per state, and stored as one bitset column per proposition,
+ * so the valuations written into a caller buffer are lookups, without allocation once the state is known.
+ * On a transition the state propositions are evaluated on the target.
+ * An evaluator is not thread-safe, each worker should use its own.
+ */
 public class LRegExpAtomicPropositionEvaluator<T>
         extends DefaultLanguageService<LRegExpConfiguration, LRegExpAction, Void>
         implements IAtomicPropositionsEvaluator<LRegExpConfiguration, LRegExpAction, Void> {
     String atomicPropositions[];
 
     public LRegExp.Expression<T> model;
-    EvaluationEnvironment environment;
+    final LRegExpStateGraph<T> graph;
     LRegExpDiagnosisExp propositions[];
 
+    //the class read by the transitions satisfying each proposition, -1 for the state propositions
+    int[] transitionClasses = new int[0];
+    //the valuations returned by the interface methods, reused from call to call
+    boolean[] valuations = new boolean[0];
+    //the bitset of the states satisfying each proposition, and of the states evaluated
+    long[][] columns = new long[0][];
+    long[] evaluated = new long[0];
+
     public LRegExpAtomicPropositionEvaluator(LRegExp.Expression<T> model) {
+        this(model, new LRegExpStateGraph<>(model));
+    }
+
+    public LRegExpAtomicPropositionEvaluator(LRegExpTransitionRelation<T> relation) {
+        this(relation.program, relation.graph());
+    }
+
+    public LRegExpAtomicPropositionEvaluator(LRegExp.Expression<T> model, LRegExpStateGraph<T> graph) {
         this.model = model;
-        environment = new EvaluationEnvironment();
-        environment.model = model;
+        this.graph = graph;
     }
 
     @Override
@@ -50,20 +79,29 @@ public class LRegExpAtomicPropositionEvaluator<T>
         int[] result = new int[atomicPropositions.length];
         this.atomicPropositions = atomicPropositions;
         propositions = new LRegExpDiagnosisExp[atomicPropositions.length];
+        transitionClasses = new int[atomicPropositions.length];
+        columns = new long[atomicPropositions.length][evaluated.length];
+        evaluated = new long[evaluated.length];
+        valuations = new boolean[atomicPropositions.length];
         for (int i = 0; i<propositions.length; i++) {
             propositions[i] = parse(atomicPropositions[i]);
+            transitionClasses[i] = propositions[i] instanceof LRegExpCharacterExp && !(propositions[i] instanceof LRegExpNextCharacterExp)
+                    ? classOf(((LRegExpCharacterExp) propositions[i]).character)
+                    : -1;
             result[i] = i;
         }
         return result;
     }
 
     LRegExpDiagnosisExp parse(String code) {
-        // index = 3
-        // index' = 4
-        // index' = index + 1
-        // @index a
-        // @index' a
-
+        // accepting, nullable
+        if (code.equals("accepting") || code.equals("nullable")) {
+            return new LRegExpAcceptingExp();
+        }
+        // dead
+        if (code.equals("dead")) {
+            return new LRegExpDeadExp();
+        }
         // 'a
         if (code.startsWith("'") && code.length() == 2) {
             return new LRegExpNextCharacterExp(code.charAt(1));
@@ -73,51 +111,108 @@ public class LRegExpAtomicPropositionEvaluator<T>
             return new LRegExpCharacterExp(code.charAt(0));
         }
 
-        String errorMessage = "LString: Unable to parse " + code + "as a diagnosis expression";
+        String errorMessage = "LRegExp: Unable to parse " + code + " as a diagnosis expression";
         System.err.println(errorMessage);
         throw new RuntimeException(errorMessage);
     }
 
-    boolean evaluate(LRegExpDiagnosisExp expression, EvaluationEnvironment environment) {
-        if (expression instanceof LRegExpNextCharacterExp) {
-            return false; //environment.model.string.charAt(environment.target.index) == ((LRegExpNextCharacterExp) expression).character;
+    /**
+     * @return the class of the token equal to the character, or the size of the alphabet,
+     * a class no transition reads, if the character is not a token of the program
+     */
+    int classOf(char character) {
+        Character symbol = character;
+        List<T> tokens = graph.alphabet().representatives();
+        for (int symbolClass = 0; symbolClass < tokens.size(); symbolClass++) {
+            if (symbol.equals(tokens.get(symbolClass))) return symbolClass;
         }
+        return graph.alphabet().size();
+    }
 
-        if (expression instanceof LRegExpCharacterExp) {
-            return false; //environment.model.string.charAt(environment.source.index) == ((LRegExpCharacterExp) expression).character;
+    boolean evaluate(LRegExpDiagnosisExp expression, int state) {
+        if (expression instanceof LRegExpAcceptingExp) {
+            return graph.isAccepting(state);
+        }
+        if (expression instanceof LRegExpDeadExp) {
+            return graph.isDead(state);
         }
+        if (expression instanceof LRegExpNextCharacterExp) {
+            int symbolClass = classOf(((LRegExpNextCharacterExp) expression).character);
+            return symbolClass < graph.alphabet().size() && !graph.isDead(graph.successor(state, symbolClass));
+        }
+        //a token is read by a transition, not by a state
         return false;
     }
 
-    @SuppressWarnings("Duplicates")
-    @Override
-    public boolean[] getAtomicPropositionValuations(LRegExpConfiguration configuration) {
-        environment.source = configuration;
+    /**
+     * Fills the columns of the state, once.
+     */
+    void evaluate(int state) {
+        int word = state >>> 6;
+        long bit = 1L << state;
+        if (word < evaluated.length && (evaluated[word] & bit) != 0) return;
+        if (word >= evaluated.length) {
+            int length = Math.max(word + 1, evaluated.length * 2);
+            evaluated = Arrays.copyOf(evaluated, length);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], length);
+            }
+        }
+        for (int i = 0; i < propositions.length; i++) {
+            if (evaluate(propositions[i], state)) {
+                columns[i][word] |= bit;
+            }
+        }
+        evaluated[word] |= bit;
+    }
+
+    @SuppressWarnings("unchecked")
+    int stateOf(LRegExpConfiguration configuration) {
+        int state = graph.table().stateOf(configuration);
+        evaluate(state);
+        return state;
+    }
 
-        boolean valuations[] = new boolean[propositions.length];
-        for (int i = 0; i<propositions.length;i++) {
-            valuations[i] = evaluate(propositions[i], environment);
+    /**
+     * Writes the valuations of the registered propositions on the configuration into the buffer.
+     */
+    public void getAtomicPropositionValuations(LRegExpConfiguration configuration, boolean[] valuations) {
+        int state = stateOf(configuration);
+        int word = state >>> 6;
+        long bit = 1L << state;
+        for (int i = 0; i < valuations.length; i++) {
+            valuations[i] = transitionClasses[i] < 0 && (columns[i][word] & bit) != 0;
+        }
+    }
+
+    /**
+     * Writes the valuations of the registered propositions on the transition into the buffer.
+     */
+    public void getAtomicPropositionValuations(LRegExpConfiguration source, LRegExpAction fireable, LRegExpConfiguration target, boolean[] valuations) {
+        int state = stateOf(target);
+        int word = state >>> 6;
+        long bit = 1L << state;
+        for (int i = 0; i < valuations.length; i++) {
+            int transitionClass = transitionClasses[i];
+            valuations[i] = transitionClass < 0 ? (columns[i][word] & bit) != 0 : transitionClass == fireable.symbolClass();
         }
-        return valuations;
     }
 
+    /**
+     * @return the valuations, in an array overwritten by the next call
+     */
+    @Override
+    public boolean[] getAtomicPropositionValuations(LRegExpConfiguration configuration) {
+        getAtomicPropositionValuations(configuration, valuations);
+        return valuations;
+    }
 
-    @SuppressWarnings("Duplicates")
+    /**
+     * @return the valuations, in an array overwritten by the next call
+     */
     @Override
     public boolean[] getAtomicPropositionValuations(LRegExpConfiguration source, LRegExpAction fireable, Void payload, LRegExpConfiguration target) {
-        environment.source = source;
-        environment.target = target;
-
-        boolean valuations[] = new boolean[propositions.length];
-        for (int i = 0; i<propositions.length;i++) {
-            valuations[i] = evaluate(propositions[i], environment);
-        }
+        getAtomicPropositionValuations(source, fireable, target, valuations);
         return valuations;
     }
 }
-
-class EvaluationEnvironment<T> {
-    LRegExp.Expression<T> model;
-    LRegExpConfiguration source;
-    LRegExpConfiguration target;
-}
\ No newline at end of file
@@ -38,4 +38,10 @@ class LRegExpNextCharacterExp extends LRegExpCharacterExp {
     LRegExpNextCharacterExp(char character) {
         super(character);
     }
-}
\ No newline at end of file
+}
+
+class LRegExpAcceptingExp extends LRegExpDiagnosisExp {
+}
+
+class LRegExpDeadExp extends LRegExpDiagnosisExp {
+}
@@ -0,0 +1,44 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+/**
+ * Notified by {@link LRegExpMetrics} when the metrics are enabled, on the thread doing the work.
+ */
+public interface ILRegExpMetricsListener {
+    /**
+     * A derivative step of an engine.
+     * @param nodes the canonical nodes created meanwhile, by all the threads
+     */
+    default void onStep(LRegExp.Expression<?> source, Object token, LRegExp.Expression<?> target, long nanos, long nodes) {
+    }
+
+    /**
+     * A new derivative state, numbered by an automaton or a state table.
+     * @param states the states numbered so far, by all the automata
+     */
+    default void onState(LRegExp.Expression<?> state, long states) {
+    }
+}
@@ -24,11 +24,10 @@
 
 package obp2.language.lregexp.model;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author Ciprian Teodorov (ciprian.teodorov@ensta-bretagne.fr)
@@ -74,29 +73,74 @@ public class LRegExp {
         }
     }
 
+    /**
+     * The expressions are immutable, their nullability, structural hash,
+     * number of nodes and height are computed once, at construction.
+     */
     public static abstract class Expression<T> {
+        final boolean nullable;
+        final int hash;
+        final int size;
+        final int height;
+
+        Expression(boolean nullable, int hash, int size, int height) {
+            this.nullable = nullable;
+            this.hash = hash;
+            this.size = size;
+            this.height = height;
+        }
+
         public <I, O> O accept(FunctionalVisitor<T, I, O> visitor, I input) {
             return visitor.visit(this, input);
         }
 
         public abstract String getSymbol();
+
+        /**
+         * @return true if the empty word belongs to the language of the expression
+         */
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        /**
+         * @return the number of nodes of the expression tree
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the length of the longest path from the root to a terminal, a terminal has height 1
+         */
+        public int height() {
+            return height;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 
     public static abstract class Terminal<T> extends Expression<T> {
+        Terminal(boolean nullable, int hash) {
+            super(nullable, hash, 1, 1);
+        }
+
         public <I, O> O accept(FunctionalVisitor<T, I, O> visitor, I input) {
             return visitor.visit(this, input);
         }
     }
 
     public static class Empty<T> extends Terminal<T> {
-        @Override
-        public boolean equals(Object obj) {
-            return (obj instanceof Empty);
+        public Empty() {
+            super(false, Empty.class.hashCode());
         }
 
         @Override
-        public int hashCode() {
-            return this.getClass().hashCode();
+        public boolean equals(Object obj) {
+            return (obj instanceof Empty);
         }
 
         @Override
@@ -110,14 +154,13 @@ public class LRegExp {
     }
 
     public static class Epsilon<T> extends Terminal<T> {
-        @Override
-        public boolean equals(Object obj) {
-            return (obj instanceof Epsilon);
+        public Epsilon() {
+            super(true, Epsilon.class.hashCode());
         }
 
         @Override
-        public int hashCode() {
-            return this.getClass().hashCode();
+        public boolean equals(Object obj) {
+            return (obj instanceof Epsilon);
         }
 
         @Override
@@ -131,21 +174,17 @@ public class LRegExp {
     }
 
     public static class Token<T> extends Terminal<T> {
-        public T token;
+        public final T token;
 
         public Token(T token) {
+            super(false, Objects.hash(Token.class, token));
             this.token = token;
         }
 
         @Override
         public boolean equals(Object obj) {
             return super.equals(obj)
-                    || (obj instanceof Token && token == ((Token<?>) obj).token);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(this.getClass(), token);
+                    || (obj instanceof Token && Objects.equals(token, ((Token<?>) obj).token));
         }
 
         @Override
@@ -159,17 +198,35 @@ public class LRegExp {
     }
 
     public static abstract class Composite<T> extends Expression<T> {
-        public List<Expression<T>> operands;
+        public final List<Expression<T>> operands;
 
-        @Override
-        public boolean equals(Object obj) {
-            return super.equals(obj)
-                    || (obj instanceof Composite && Objects.equals(operands, ((Composite<T>) obj).operands));
+        Composite(Class<?> kind, boolean nullable, List<Expression<T>> operands) {
+            super(nullable, Objects.hash(kind, operands), 1 + size(operands), 1 + height(operands));
+            this.operands = Collections.unmodifiableList(operands);
+        }
+
+        static int size(List<? extends Expression<?>> operands) {
+            int size = 0;
+            for (Expression<?> operand : operands) {
+                size += operand.size;
+            }
+            return size;
+        }
+
+        static int height(List<? extends Expression<?>> operands) {
+            int height = 0;
+            for (Expression<?> operand : operands) {
+                height = Math.max(height, operand.height);
+            }
+            return height;
         }
 
         @Override
-        public int hashCode() {
-            return Objects.hash(this.getClass(), operands);
+        public boolean equals(Object obj) {
+            return super.equals(obj)
+                    || (obj instanceof Composite
+                        && hash == ((Composite<?>) obj).hash
+                        && Objects.equals(operands, ((Composite<?>) obj).operands));
         }
 
         public <I, O> O accept(FunctionalVisitor<T, I, O> visitor, I input) {
@@ -179,7 +236,7 @@ public class LRegExp {
 
     public static class Concatenation<T> extends Composite<T> {
         public Concatenation(Expression<T> lhs, Expression<T> rhs) {
-            operands = Stream.of(lhs, rhs).collect(Collectors.toList());
+            super(Concatenation.class, lhs.nullable && rhs.nullable, Arrays.asList(lhs, rhs));
         }
 
         @Override
@@ -187,11 +244,6 @@ public class LRegExp {
             return super.equals(obj) && (obj instanceof Concatenation);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(this.getClass(), operands);
-        }
-
         @Override
         public String getSymbol() {
             return "∘";
@@ -204,7 +256,7 @@ public class LRegExp {
 
     public static class Union<T> extends Composite<T> {
         public Union(Expression<T> lhs, Expression<T> rhs) {
-            operands = Stream.of(lhs, rhs).collect(Collectors.toList());
+            super(Union.class, lhs.nullable || rhs.nullable, Arrays.asList(lhs, rhs));
         }
 
         @Override
@@ -212,11 +264,6 @@ public class LRegExp {
             return super.equals(obj) && (obj instanceof Union);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(this.getClass(), operands);
-        }
-
         @Override
         public String getSymbol() {
             return "|";
@@ -229,7 +276,7 @@ public class LRegExp {
 
     public static class KleeneStar<T> extends Composite<T> {
         public KleeneStar(Expression<T> operand) {
-            operands = Collections.singletonList(operand);
+            super(KleeneStar.class, true, Collections.singletonList(operand));
         }
 
         @Override
@@ -237,11 +284,6 @@ public class LRegExp {
             return super.equals(obj) && (obj instanceof KleeneStar);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(this.getClass(), operands);
-        }
-
         @Override
         public String getSymbol() {
             return "*";
@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe cache bounded by its number of entries and by their estimated weight, evicting the least recently used entries.
+ * The table is split into lock-striped segments selected by the hash of the key, each an access-ordered map with its share of the bounds.
+ * The loading is single-flight: the first thread asking for a missing key loads it outside the lock,
+ * the concurrent requests for the same key wait for its value. A failed load is not cached.
+ * A loader must not ask its own cache for the key it is loading.
+ *
+ * The process-wide {@link #expression(String, LRegExpFactory)} cache holds the compiled patterns by source and factory.
+ */
+public class LRegExpCache<K, V> {
+    static final int SEGMENTS = 16;
+    public static final long DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_WEIGHT = 64L << 20;
+    //the estimated footprint of an expression node: header, hash, metadata and operand list
+    static final long NODE_WEIGHT = 64;
+
+    private static final LRegExpCache<Key, LRegExp.Expression<?>> EXPRESSIONS =
+            new LRegExpCache<>(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT, expression -> expression.size() * NODE_WEIGHT);
+
+    private final Segment<K, V>[] segments;
+    private final ToLongFunction<? super V> weigher;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LRegExpCache(long maxEntries, long maxWeight, ToLongFunction<? super V> weigher) {
+        //small caches are not split, so that their bounds stay exact
+        int count = maxEntries < SEGMENTS * 8 ? 1 : SEGMENTS;
+        segments = newSegments(count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(Math.max(1, maxEntries / count), Math.max(1, maxWeight / count));
+        }
+        this.weigher = weigher;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Segment<K, V>[] newSegments(int count) {
+        return (Segment<K, V>[]) new Segment<?, ?>[count];
+    }
+
+    /**
+     * @return the expression read from the source and interned by the factory, compiled once per source and factory
+     * @throws IllegalArgumentException if the source is not a well-formed expression
+     */
+    @SuppressWarnings("unchecked")
+    public static LRegExp.Expression<Character> expression(String source, LRegExpFactory<Character> factory) {
+        return (LRegExp.Expression<Character>) EXPRESSIONS.get(new Key(source, factory), key -> compile(source, factory));
+    }
+
+    public static LRegExp.Expression<Character> expression(String source) {
+        return expression(source, LRegExpFactory.simplifying());
+    }
+
+    /**
+     * @return the process-wide cache of the compiled patterns
+     */
+    public static LRegExpCache<?, ?> expressions() {
+        return EXPRESSIONS;
+    }
+
+    static LRegExp.Expression<Character> compile(String source, LRegExpFactory<Character> factory) {
+        try {
+            return factory.intern(new LRegExpCharReader().parse(source));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage() + " at " + e.getErrorOffset(), e);
+        }
+    }
+
+    /**
+     * @return the value of the key, loaded by this thread or by a concurrent one if missing
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> entry;
+        boolean loading = false;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+            if (entry == null) {
+                entry = new Entry<>();
+                segment.entries.put(key, entry);
+                loading = true;
+            }
+        }
+        if (!loading) {
+            hits.increment();
+            return await(entry);
+        }
+        misses.increment();
+
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                segment.entries.remove(key, entry);
+            }
+            entry.completeExceptionally(e);
+            throw e;
+        }
+        long weight = weigher.applyAsLong(value);
+        synchronized (segment) {
+            if (segment.entries.get(key) == entry) {
+                entry.weight = weight;
+                segment.weight += weight;
+                segment.evict();
+            }
+        }
+        entry.complete(value);
+        return value;
+    }
+
+    /**
+     * @return the value of the key, or null if it is neither cached nor loading
+     */
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> entry;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+        }
+        return entry == null ? null : await(entry);
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries, including the ones being loaded
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated weight of the loaded entries
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+
+    static <V> V await(Entry<V> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    static final class Segment<K, V> {
+        final long maxEntries;
+        final long maxWeight;
+        final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        long weight;
+
+        Segment(long maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        void remove(K key) {
+            Entry<V> entry = entries.remove(key);
+            if (entry != null && entry.weight >= 0) {
+                weight -= entry.weight;
+            }
+        }
+
+        //the least recently used loaded entries go first, the entries being loaded are kept
+        void evict() {
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+                Entry<V> entry = iterator.next().getValue();
+                if (entry.weight < 0) continue;
+                weight -= entry.weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    static final class Entry<V> extends CompletableFuture<V> {
+        //-1 while loading
+        long weight = -1;
+    }
+
+    static final class Key {
+        final String source;
+        final Object options;
+
+        Key(String source, Object options) {
+            this.source = source;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return source.equals(other.source) && Objects.equals(options, other.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + Objects.hashCode(options);
+        }
+    }
+}
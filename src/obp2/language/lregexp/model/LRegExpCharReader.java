@@ -24,142 +24,163 @@
 
 package obp2.language.lregexp.model;
 
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 /*
 *
-    E -> empty
+    E -> E | C
+    | C
+    C -> C . S
+    | C S
+    | S
+    S -> S *
+    | A
+    A -> empty
     | epsilon
     | char
-    | E u E
-    | E . E
-    | E *
     | (E)
----
-
-    E -> empty E'
-    | epsilon E'
-    | char E'
-    | (E) E'
-    E' -> u E E'
-    | . E E'
-    | * E'
-    | ϵ
 
+    the Kleene star binds tighter than the concatenation, which binds tighter than the union
 * */
 
+/**
+ * Reads the expressions over characters in one left-to-right pass, without backtracking nor recursion,
+ * so the time is linear in the length of the pattern and the nesting depth is only bounded by the heap.
+ * The operands of a sequence of unions, or of concatenations, are assembled into a balanced tree,
+ * so the height of the expression grows with the logarithm of their number.
+ * The reader holds no state, it can be shared across threads.
+ */
 public class LRegExpCharReader {
-    LRegExp.Expression<Character> context;
 
+    /**
+     * @return the expression, or null if the string is not a well-formed expression
+     */
     public LRegExp.Expression<Character> readExpression(String string) {
-        StringIterator iterator = new StringIterator(string);
-        return readExpression(iterator);
+        return readExpression(new StringIterator(string));
     }
+
+    /**
+     * Reads the remaining characters of the iterator.
+     * @return the expression, or null if they are not a well-formed expression
+     */
     public LRegExp.Expression<Character> readExpression(StringIterator iterator) {
-        LRegExp.Expression<Character> expression = readEmpty(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
-        }
-        expression = readEpsilon(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
-        }
-        ;
-        expression = readToken(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
+        try {
+            return parse(iterator);
+        } catch (ParseException e) {
+            return null;
         }
-        expression = readParens(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
-        }
-        return null;
     }
 
-    private LRegExp.Expression<Character> getRemaining(StringIterator iterator, LRegExp.Expression<Character> expression) {
-        context = expression;
-        expression = readExpressionPrim(iterator);
-        if (expression == null) {
-            expression = context;
-        }
-        context = null;
-        return expression;
+    /**
+     * @throws ParseException at the offset of the first character which cannot continue the expression
+     */
+    public LRegExp.Expression<Character> parse(String string) throws ParseException {
+        return parse(new StringIterator(string));
     }
 
-    LRegExp.Expression<Character> readExpressionPrim(StringIterator iterator) {
-        LRegExp.Expression<Character> expression = readConcatenation(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
-        }
-        expression = readUnion(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
+    /**
+     * Reads the remaining characters of the iterator, it is left at the end of the input, or at the error.
+     * @throws ParseException at the offset of the first character which cannot continue the expression
+     */
+    public LRegExp.Expression<Character> parse(StringIterator iterator) throws ParseException {
+        String string = iterator.string;
+        Deque<Group> groups = new ArrayDeque<>();
+        Group group = new Group(iterator.index);
+        //after a '.', an operand is expected
+        boolean operand = false;
+        for (; iterator.hasNext(); iterator.advance()) {
+            int offset = iterator.index;
+            char ch = string.charAt(offset);
+            switch (ch) {
+                case '(':
+                    groups.push(group);
+                    group = new Group(offset);
+                    operand = false;
+                    break;
+                case ')':
+                    if (groups.isEmpty()) throw new ParseException("LRegExp: unbalanced ')'", offset);
+                    if (operand) throw new ParseException("LRegExp: missing operand after '.'", offset);
+                    LRegExp.Expression<Character> expression = group.close(offset, true);
+                    group = groups.pop();
+                    group.factors.add(expression);
+                    break;
+                case '|':
+                    if (operand) throw new ParseException("LRegExp: missing operand after '.'", offset);
+                    group.alternative(offset);
+                    break;
+                case '.':
+                    if (operand || group.factors.isEmpty()) throw new ParseException("LRegExp: missing operand before '.'", offset);
+                    operand = true;
+                    break;
+                case '*':
+                    if (operand || group.factors.isEmpty()) throw new ParseException("LRegExp: missing operand before '*'", offset);
+                    int last = group.factors.size() - 1;
+                    group.factors.set(last, new LRegExp.KleeneStar<>(group.factors.get(last)));
+                    break;
+                case '∅':
+                    group.factors.add(new LRegExp.Empty<>());
+                    operand = false;
+                    break;
+                case 'ε':
+                    group.factors.add(new LRegExp.Epsilon<>());
+                    operand = false;
+                    break;
+                default:
+                    group.factors.add(new LRegExp.Token<>(ch));
+                    operand = false;
+            }
         }
-        expression = readKleeneStar(iterator);
-        if (expression != null) {
-            return getRemaining(iterator, expression);
-        }
-        if (iterator.hasNext()) return null;
-        return context;
-    }
-
-    LRegExp.Expression<Character> readEmpty(StringIterator iterator) {
-        if (!iterator.hasNext() || iterator.peek() != '∅') return null;
-        iterator.advance();
-        return new LRegExp.Empty<>();
-
+        int end = iterator.index;
+        if (operand) throw new ParseException("LRegExp: missing operand after '.'", end);
+        if (!groups.isEmpty()) throw new ParseException("LRegExp: unbalanced '('", group.offset);
+        return group.close(end, false);
     }
 
-    LRegExp.Expression<Character> readEpsilon(StringIterator iterator) {
-        if (!iterator.hasNext() || iterator.peek() != 'ε') return null;
-        iterator.advance();
-        return new LRegExp.Epsilon<>();
-    }
-
-    LRegExp.Expression<Character> readToken(StringIterator iterator) {
-        if (!iterator.hasNext() || isSpecial(iterator.peek())) return null;
-        Character ch = iterator.next();
-        return new LRegExp.Token<>(ch);
-    }
+    /**
+     * An open parenthesis, or the whole pattern: the alternatives read so far, and the factors of the current one.
+     */
+    static class Group {
+        final int offset;
+        final List<LRegExp.Expression<Character>> alternatives = new ArrayList<>();
+        List<LRegExp.Expression<Character>> factors = new ArrayList<>();
 
-    LRegExp.Expression<Character> readConcatenation(StringIterator iterator) {
-        LRegExp.Expression<Character> lhs = context;
-        if (!iterator.hasNext()) return null;
-        // '.' is the concatenation operator
-        if (iterator.peek() == '.') {
-            iterator.advance();
+        Group(int offset) {
+            this.offset = offset;
         }
-        // just next is also a concatenation operator
-        LRegExp.Expression<Character> rhs = readExpression(iterator);
-        if (rhs == null) return null;
-        return new LRegExp.Concatenation<>(lhs, rhs);
-    }
 
-    LRegExp.Expression<Character> readUnion(StringIterator iterator) {
-        LRegExp.Expression<Character> lhs = context;
-        if (!iterator.hasNext() || iterator.peek() != '|') return null;
-        iterator.advance();
-        LRegExp.Expression<Character> rhs = readExpression(iterator);
-        if (rhs == null) return null;
-        return new LRegExp.Union<>(lhs, rhs);
-    }
+        void alternative(int offset) throws ParseException {
+            if (factors.isEmpty()) throw new ParseException("LRegExp: missing operand before '|'", offset);
+            alternatives.add(concatenation(factors, 0, factors.size()));
+            factors = new ArrayList<>();
+        }
 
-    LRegExp.Expression<Character> readKleeneStar(StringIterator iterator) {
-        if (!iterator.hasNext() || iterator.peek() != '*') return null;
-        iterator.advance();
-        return new LRegExp.KleeneStar<>(context);
+        /**
+         * @param parenthesis true if the group is closed by the ')' at the offset, false if by the end of the input
+         */
+        LRegExp.Expression<Character> close(int offset, boolean parenthesis) throws ParseException {
+            if (factors.isEmpty()) {
+                if (alternatives.isEmpty()) throw new ParseException("LRegExp: empty expression", offset);
+                throw new ParseException(parenthesis ? "LRegExp: unexpected ')'" : "LRegExp: missing operand after '|'", offset);
+            }
+            alternative(offset);
+            return union(alternatives, 0, alternatives.size());
+        }
     }
 
-    LRegExp.Expression<Character> readParens(StringIterator iterator) {
-        if (!iterator.hasNext() || iterator.peek() != '(') return null;
-        iterator.advance();
-        LRegExp.Expression<Character> expression = readExpression(iterator);
-        if (!iterator.hasNext() || iterator.peek() != ')') return null;
-        iterator.advance();
-        return expression;
+    //the recursion depth is logarithmic in the number of operands
+    static LRegExp.Expression<Character> union(List<LRegExp.Expression<Character>> operands, int from, int to) {
+        if (to - from == 1) return operands.get(from);
+        int middle = (from + to) >>> 1;
+        return new LRegExp.Union<>(union(operands, from, middle), union(operands, middle, to));
     }
 
-    boolean isSpecial(Character ch) {
-        return ch == '∅' || ch == 'ε' || ch == '|' || ch == '*' || ch == '.' || ch == '(' || ch == ')';
+    static LRegExp.Expression<Character> concatenation(List<LRegExp.Expression<Character>> operands, int from, int to) {
+        if (to - from == 1) return operands.get(from);
+        int middle = (from + to) >>> 1;
+        return new LRegExp.Concatenation<>(concatenation(operands, from, middle), concatenation(operands, middle, to));
     }
 }
-
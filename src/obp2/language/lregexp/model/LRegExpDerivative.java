@@ -24,39 +24,58 @@
 
 package obp2.language.lregexp.model;
 
+import java.util.Objects;
+
 public class LRegExpDerivative<T> extends LRegExp.FunctionalVisitor<T, T, LRegExp.Expression<T>> {
+    final LRegExpFactory<T> factory;
+    final LRegExpNullability<T> nullability;
+    final boolean simplifying;
+
+    public LRegExpDerivative() {
+        this(LRegExpFactory.simplifying());
+    }
+
+    public LRegExpDerivative(LRegExpFactory<T> factory) {
+        this.factory = factory;
+        this.nullability = new LRegExpNullability<>(factory);
+        this.simplifying = factory instanceof LRegExpSimplifyingFactory;
+    }
+
     LRegExp.Expression<T> derivative(LRegExp.Expression<T> node, T token) {
         return node.accept(this, token);
     }
 
     LRegExp.Expression<T> delta(LRegExp.Expression<T> node) {
-        LRegExpNullability<T> nullability = new LRegExpNullability<>();
+        //a simplified Δ is either ∅ or ε, known from the precomputed nullability
+        if (simplifying) {
+            return node.isNullable() ? factory.epsilon() : factory.empty();
+        }
         return node.accept(nullability, null);
     }
 
     //D ∅         t ≜ ∅
     @Override
     LRegExp.Expression<T> visit(LRegExp.Empty<T> node, T input) {
-        return new LRegExp.Empty<>();
+        return factory.empty();
     }
 
     //D ϵ         t ≜ ∅
     @Override
     LRegExp.Expression<T> visit(LRegExp.Epsilon<T> node, T input) {
-        return new LRegExp.Empty<>();
+        return factory.empty();
     }
 
     //D (τ o)     o ≜ ϵ
     //D (τ o)     t ≜ ∅, where o ≠ c
     @Override
     LRegExp.Expression<T> visit(LRegExp.Token<T> node, T input) {
-        return node.token == input ? new LRegExp.Epsilon<>() : new LRegExp.Empty<>();
+        return Objects.equals(node.token, input) ? factory.epsilon() : factory.empty();
     }
 
     //D (L₁ | L₂) t ≜ (D L₁ t) | (D L₂ t)
     @Override
     LRegExp.Expression<T> visit(LRegExp.Union<T> node, T input) {
-        return new LRegExp.Union<>(
+        return factory.union(
                 derivative(node.operands.get(0), input),
                 derivative(node.operands.get(1), input)
         );
@@ -65,11 +84,11 @@ public class LRegExpDerivative<T> extends LRegExp.FunctionalVisitor<T, T, LRegEx
     //D (L₁ ∘ L₂) t ≜ (D L₁ t) ∘ L₂ | (Δ L₁) ∘ (D L₂ t)
     @Override
     LRegExp.Expression<T> visit(LRegExp.Concatenation<T> node, T input) {
-        return new LRegExp.Union<>(
-                (new LRegExp.Concatenation<>(
+        return factory.union(
+                (factory.concatenation(
                         derivative(node.operands.get(0), input),
                         node.operands.get(1))),
-                (new LRegExp.Concatenation<>(
+                (factory.concatenation(
                         delta(node.operands.get(0)),
                         derivative(node.operands.get(1), input)))
         );
@@ -78,7 +97,7 @@ public class LRegExpDerivative<T> extends LRegExp.FunctionalVisitor<T, T, LRegEx
     //D (L₁*) t ≜ (D L₁) ∘ (L₁*)
     @Override
     LRegExp.Expression<T> visit(LRegExp.KleeneStar<T> node, T input) {
-        return new LRegExp.Concatenation<>(
+        return factory.concatenation(
                 derivative(node.operands.get(0), input),
                 node
         );
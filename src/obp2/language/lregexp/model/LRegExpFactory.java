@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Hash-consing factory for {@link LRegExp} expressions.
+ * Structurally equal expressions obtained from the same factory are the same instance,
+ * so they can be compared by reference and their hash is computed only once.
+ * The canonical instances are weakly held and the factory can be shared across threads.
+ *
+ * The composite constructors expect their operands to come from this factory,
+ * use {@link #intern(LRegExp.Expression)} to bring an arbitrary expression into it.
+ * Subclasses may override the constructors to rewrite the terms before they are interned,
+ * {@link #intern(LRegExp.Expression)} rebuilds the expression through them.
+ */
+public class LRegExpFactory<T> {
+    private static final LRegExpFactory<?> SHARED = new LRegExpFactory<>();
+    private static final LRegExpFactory<?> SIMPLIFYING = new LRegExpSimplifyingFactory<>();
+
+    /**
+     * @return the process-wide factory, building the terms exactly as requested
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LRegExpFactory<T> shared() {
+        return (LRegExpFactory<T>) SHARED;
+    }
+
+    /**
+     * @return the process-wide {@link LRegExpSimplifyingFactory}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LRegExpFactory<T> simplifying() {
+        return (LRegExpFactory<T>) SIMPLIFYING;
+    }
+
+    private final LRegExp.Empty<T> empty = new LRegExp.Empty<>();
+    private final LRegExp.Epsilon<T> epsilon = new LRegExp.Epsilon<>();
+    private final LRegExpInterner<LRegExp.Expression<T>> table = new LRegExpInterner<>();
+
+    public LRegExp.Expression<T> empty() {
+        return empty;
+    }
+
+    public LRegExp.Expression<T> epsilon() {
+        return epsilon;
+    }
+
+    public LRegExp.Expression<T> token(T token) {
+        return canonical(new LRegExp.Token<>(token));
+    }
+
+    public LRegExp.Expression<T> union(LRegExp.Expression<T> lhs, LRegExp.Expression<T> rhs) {
+        return canonical(new LRegExp.Union<>(lhs, rhs));
+    }
+
+    public LRegExp.Expression<T> concatenation(LRegExp.Expression<T> lhs, LRegExp.Expression<T> rhs) {
+        return canonical(new LRegExp.Concatenation<>(lhs, rhs));
+    }
+
+    public LRegExp.Expression<T> kleeneStar(LRegExp.Expression<T> operand) {
+        return canonical(new LRegExp.KleeneStar<>(operand));
+    }
+
+    private LRegExp.Expression<T> canonical(LRegExp.Expression<T> candidate) {
+        LRegExp.Expression<T> canonical = table.intern(candidate);
+        if (LRegExpMetrics.ENABLED && canonical == candidate) {
+            LRegExpMetrics.node();
+        }
+        return canonical;
+    }
+
+    /**
+     * @return the canonical instance of the expression, interning all its subterms bottom-up
+     */
+    public LRegExp.Expression<T> intern(LRegExp.Expression<T> expression) {
+        return expression.accept(new Interning(), new IdentityHashMap<>());
+    }
+
+    /**
+     * @return true if the expression is the canonical instance held by this factory
+     */
+    public boolean isCanonical(LRegExp.Expression<T> expression) {
+        if (expression instanceof LRegExp.Empty) return expression == empty;
+        if (expression instanceof LRegExp.Epsilon) return expression == epsilon;
+        return table.lookup(expression) == expression;
+    }
+
+    /**
+     * @return the number of live canonical terms
+     */
+    public int size() {
+        return table.size() + 2;
+    }
+
+    class Interning extends LRegExp.FunctionalVisitor<T, Map<LRegExp.Expression<T>, LRegExp.Expression<T>>, LRegExp.Expression<T>> {
+        @Override
+        LRegExp.Expression<T> visit(LRegExp.Empty<T> node, Map<LRegExp.Expression<T>, LRegExp.Expression<T>> input) {
+            return empty;
+        }
+
+        @Override
+        LRegExp.Expression<T> visit(LRegExp.Epsilon<T> node, Map<LRegExp.Expression<T>, LRegExp.Expression<T>> input) {
+            return epsilon;
+        }
+
+        @Override
+        LRegExp.Expression<T> visit(LRegExp.Token<T> node, Map<LRegExp.Expression<T>, LRegExp.Expression<T>> input) {
+            return canonical(node);
+        }
+
+        @Override
+        LRegExp.Expression<T> visit(LRegExp.Union<T> node, Map<LRegExp.Expression<T>, LRegExp.Expression<T>> input) {
+            LRegExp.Expression<T> result = input.get(node);
+            if (result != null) return result;
+            LRegExp.Expression<T> lhs = node.operands.get(0).accept(this, input);
+            LRegExp.Expression<T> rhs = node.operands.get(1).accept(this, input);
+            result = union(lhs, rhs);
+            input.put(node, result);
+            return result;
+        }
+
+        @Override
+        LRegExp.Expression<T> visit(LRegExp.Concatenation<T> node, Map<LRegExp.Expression<T>, LRegExp.Expression<T>> input) {
+            LRegExp.Expression<T> result = input.get(node);
+            if (result != null) return result;
+            LRegExp.Expression<T> lhs = node.operands.get(0).accept(this, input);
+            LRegExp.Expression<T> rhs = node.operands.get(1).accept(this, input);
+            result = concatenation(lhs, rhs);
+            input.put(node, result);
+            return result;
+        }
+
+        @Override
+        LRegExp.Expression<T> visit(LRegExp.KleeneStar<T> node, Map<LRegExp.Expression<T>, LRegExp.Expression<T>> input) {
+            LRegExp.Expression<T> result = input.get(node);
+            if (result != null) return result;
+            LRegExp.Expression<T> operand = node.operands.get(0).accept(this, input);
+            result = kleeneStar(operand);
+            input.put(node, result);
+            return result;
+        }
+    }
+}
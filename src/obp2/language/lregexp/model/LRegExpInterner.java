@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A thread-safe weak interning table.
+ * The table is split into lock-striped segments selected by the hash of the candidate,
+ * so that concurrent interning of unrelated values rarely contends on the same lock.
+ * Entries are dropped once their canonical value is no longer strongly reachable.
+ */
+class LRegExpInterner<E> {
+    static final int SEGMENTS = 64;
+
+    private final Map<E, WeakReference<E>>[] segments;
+
+    LRegExpInterner() {
+        segments = newSegments(SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new WeakHashMap<>();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Map<E, WeakReference<E>>[] newSegments(int count) {
+        return (Map<E, WeakReference<E>>[]) new Map<?, ?>[count];
+    }
+
+    E intern(E candidate) {
+        Map<E, WeakReference<E>> segment = segmentFor(candidate);
+        synchronized (segment) {
+            WeakReference<E> reference = segment.get(candidate);
+            E canonical = reference == null ? null : reference.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            // the value must be weakly held, otherwise it would keep its own key alive
+            segment.put(candidate, new WeakReference<>(candidate));
+            return candidate;
+        }
+    }
+
+    E lookup(E candidate) {
+        Map<E, WeakReference<E>> segment = segmentFor(candidate);
+        synchronized (segment) {
+            WeakReference<E> reference = segment.get(candidate);
+            return reference == null ? null : reference.get();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Map<E, WeakReference<E>> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<E, WeakReference<E>> segmentFor(E candidate) {
+        int hash = candidate.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The process-wide metrics of the engines: the derivative steps, the canonical nodes created, the derivative states,
+ * the transition caches hits and misses, the size and height of the reached derivatives, the time per step.
+ * The counters are striped {@link LongAdder}s, the distributions are {@link LRegExpHistogram}s.
+ *
+ * The metrics are enabled by the system property {@code obp2.lregexp.metrics=true}, read once:
+ * the instrumented code tests the constant {@link #ENABLED} before calling the hooks,
+ * so the JIT removes the instrumentation when they are disabled.
+ * {@link #registerMBean()} publishes them through JMX, as {@value #OBJECT_NAME}.
+ */
+public final class LRegExpMetrics implements LRegExpMetricsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("obp2.lregexp.metrics");
+    public static final String OBJECT_NAME = "obp2.lregexp:type=Metrics";
+    public static final LRegExpMetrics INSTANCE = new LRegExpMetrics();
+
+    final LongAdder steps = new LongAdder();
+    final LongAdder nullabilityCalls = new LongAdder();
+    final LongAdder nodes = new LongAdder();
+    final LongAdder states = new LongAdder();
+    final LongAdder cacheHits = new LongAdder();
+    final LongAdder cacheMisses = new LongAdder();
+    final LRegExpHistogram nodesPerStep = new LRegExpHistogram();
+    final LRegExpHistogram expressionSize = new LRegExpHistogram();
+    final LRegExpHistogram expressionHeight = new LRegExpHistogram();
+    final LRegExpHistogram stepNanos = new LRegExpHistogram();
+    final List<ILRegExpMetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    private LRegExpMetrics() {
+    }
+
+    public static void addListener(ILRegExpMetricsListener listener) {
+        INSTANCE.listeners.add(listener);
+    }
+
+    public static void removeListener(ILRegExpMetricsListener listener) {
+        INSTANCE.listeners.remove(listener);
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, once.
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException registered) {
+            //already published
+        } catch (JMException e) {
+            throw new IllegalStateException("LRegExp: cannot register the metrics", e);
+        }
+    }
+
+    //the hooks, called under ENABLED
+
+    /**
+     * @return the start of a step, to pass to {@link #step}
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @return the canonical nodes created so far, to pass to {@link #step}
+     */
+    public static long nodes() {
+        return INSTANCE.nodes.sum();
+    }
+
+    /**
+     * @return the derivative of the source by the token, recorded as a step when the metrics are enabled
+     */
+    public static <T> LRegExp.Expression<T> derivative(LRegExpDerivative<T> derivative, LRegExp.Expression<T> source, T token) {
+        if (!ENABLED) {
+            return source.accept(derivative, token);
+        }
+        long start = start();
+        long nodes = nodes();
+        LRegExp.Expression<T> target = source.accept(derivative, token);
+        step(source, token, target, start, nodes);
+        return target;
+    }
+
+    public static void step(LRegExp.Expression<?> source, Object token, LRegExp.Expression<?> target, long start, long nodesBefore) {
+        long nanos = System.nanoTime() - start;
+        long nodes = INSTANCE.nodes.sum() - nodesBefore;
+        INSTANCE.steps.increment();
+        INSTANCE.stepNanos.record(nanos);
+        INSTANCE.nodesPerStep.record(nodes);
+        INSTANCE.expressionSize.record(target.size());
+        INSTANCE.expressionHeight.record(target.height());
+        for (ILRegExpMetricsListener listener : INSTANCE.listeners) {
+            listener.onStep(source, token, target, nanos, nodes);
+        }
+    }
+
+    public static void state(LRegExp.Expression<?> state) {
+        INSTANCE.states.increment();
+        if (INSTANCE.listeners.isEmpty()) return;
+        long states = INSTANCE.states.sum();
+        for (ILRegExpMetricsListener listener : INSTANCE.listeners) {
+            listener.onState(state, states);
+        }
+    }
+
+    public static void node() {
+        INSTANCE.nodes.increment();
+    }
+
+    public static void nullability() {
+        INSTANCE.nullabilityCalls.increment();
+    }
+
+    public static void hit() {
+        INSTANCE.cacheHits.increment();
+    }
+
+    public static void miss() {
+        INSTANCE.cacheMisses.increment();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getSteps() {
+        return steps.sum();
+    }
+
+    @Override
+    public long getNullabilityCalls() {
+        return nullabilityCalls.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getStates() {
+        return states.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = getCacheHits();
+        long total = hits + getCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public double getMeanNodesPerStep() {
+        return nodesPerStep.mean();
+    }
+
+    @Override
+    public long getMaxNodesPerStep() {
+        return nodesPerStep.max();
+    }
+
+    @Override
+    public double getMeanExpressionSize() {
+        return expressionSize.mean();
+    }
+
+    @Override
+    public long getMaxExpressionSize() {
+        return expressionSize.max();
+    }
+
+    @Override
+    public long getMaxExpressionHeight() {
+        return expressionHeight.max();
+    }
+
+    @Override
+    public double getMeanStepNanos() {
+        return stepNanos.mean();
+    }
+
+    @Override
+    public long getP99StepNanos() {
+        return stepNanos.percentile(99);
+    }
+
+    public LRegExpHistogram stepNanos() {
+        return stepNanos;
+    }
+
+    public LRegExpHistogram nodesPerStep() {
+        return nodesPerStep;
+    }
+
+    public LRegExpHistogram expressionSize() {
+        return expressionSize;
+    }
+
+    public LRegExpHistogram expressionHeight() {
+        return expressionHeight;
+    }
+
+    @Override
+    public void reset() {
+        steps.reset();
+        nullabilityCalls.reset();
+        nodes.reset();
+        states.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        nodesPerStep.reset();
+        expressionSize.reset();
+        expressionHeight.reset();
+        stepNanos.reset();
+    }
+}
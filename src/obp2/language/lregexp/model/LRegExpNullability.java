@@ -25,28 +25,41 @@
 package obp2.language.lregexp.model;
 
 public class LRegExpNullability<T> extends LRegExp.FunctionalVisitor<T, Void, LRegExp.Expression<T>> {
+    final LRegExpFactory<T> factory;
+
+    public LRegExpNullability() {
+        this(LRegExpFactory.simplifying());
+    }
+
+    public LRegExpNullability(LRegExpFactory<T> factory) {
+        this.factory = factory;
+    }
+
     LRegExp.Expression<T> nullability(LRegExp.Expression<T> node) {
+        if (LRegExpMetrics.ENABLED) {
+            LRegExpMetrics.nullability();
+        }
         return node.accept(this, null);
     }
 
     @Override
     LRegExp.Expression<T> visit(LRegExp.Empty<T> node, Void input) {
-        return new LRegExp.Empty<>();
+        return factory.empty();
     }
 
     @Override
     LRegExp.Expression<T> visit(LRegExp.Epsilon<T> node, Void input) {
-        return new LRegExp.Epsilon<>();
+        return factory.epsilon();
     }
 
     @Override
     LRegExp.Expression<T> visit(LRegExp.Token<T> node, Void input) {
-        return new LRegExp.Empty<>();
+        return factory.empty();
     }
 
     @Override
     LRegExp.Expression<T> visit(LRegExp.Union<T> node, Void input) {
-        return new LRegExp.Union<>(
+        return factory.union(
                 nullability(node.operands.get(0)),
                 nullability(node.operands.get(1))
         );
@@ -54,7 +67,7 @@ public class LRegExpNullability<T> extends LRegExp.FunctionalVisitor<T, Void, LR
 
     @Override
     LRegExp.Expression<T> visit(LRegExp.Concatenation<T> node, Void input) {
-        return new LRegExp.Concatenation<>(
+        return factory.concatenation(
                 nullability(node.operands.get(0)),
                 nullability(node.operands.get(1))
         );
@@ -62,6 +75,6 @@ public class LRegExpNullability<T> extends LRegExp.FunctionalVisitor<T, Void, LR
 
     @Override
     LRegExp.Expression<T> visit(LRegExp.KleeneStar<T> node, Void input) {
-        return new LRegExp.Epsilon<>();
+        return factory.epsilon();
     }
 }
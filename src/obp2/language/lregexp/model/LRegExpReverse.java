@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+/**
+ * The reversal of an expression, whose language holds the mirror images of the words of the expression.
+ */
+public class LRegExpReverse<T> extends LRegExp.FunctionalVisitor<T, Void, LRegExp.Expression<T>> {
+    final LRegExpFactory<T> factory;
+
+    public LRegExpReverse() {
+        this(LRegExpFactory.simplifying());
+    }
+
+    public LRegExpReverse(LRegExpFactory<T> factory) {
+        this.factory = factory;
+    }
+
+    public LRegExp.Expression<T> reverse(LRegExp.Expression<T> node) {
+        return node.accept(this, null);
+    }
+
+    //R ∅         ≜ ∅
+    @Override
+    LRegExp.Expression<T> visit(LRegExp.Empty<T> node, Void input) {
+        return factory.empty();
+    }
+
+    //R ϵ         ≜ ϵ
+    @Override
+    LRegExp.Expression<T> visit(LRegExp.Epsilon<T> node, Void input) {
+        return factory.epsilon();
+    }
+
+    //R (τ o)     ≜ τ o
+    @Override
+    LRegExp.Expression<T> visit(LRegExp.Token<T> node, Void input) {
+        return factory.token(node.token);
+    }
+
+    //R (L₁ | L₂) ≜ (R L₁) | (R L₂)
+    @Override
+    LRegExp.Expression<T> visit(LRegExp.Union<T> node, Void input) {
+        return factory.union(
+                reverse(node.operands.get(0)),
+                reverse(node.operands.get(1))
+        );
+    }
+
+    //R (L₁ ∘ L₂) ≜ (R L₂) ∘ (R L₁)
+    @Override
+    LRegExp.Expression<T> visit(LRegExp.Concatenation<T> node, Void input) {
+        return factory.concatenation(
+                reverse(node.operands.get(1)),
+                reverse(node.operands.get(0))
+        );
+    }
+
+    //R (L₁*)     ≜ (R L₁)*
+    @Override
+    LRegExp.Expression<T> visit(LRegExp.KleeneStar<T> node, Void input) {
+        return factory.kleeneStar(reverse(node.operands.get(0)));
+    }
+}
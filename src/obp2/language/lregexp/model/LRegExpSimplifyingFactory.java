@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A hash-consing factory whose constructors simplify the terms they build.
+ * The rewrites preserve the language and keep the derivatives proportional to the pattern:
+ * <pre>
+ * ∅ ∘ r ≜ ∅     r ∘ ∅ ≜ ∅
+ * ε ∘ r ≜ r     r ∘ ε ≜ r
+ * ∅ | r ≜ r     r | ∅ ≜ r
+ * r | r ≜ r
+ * ∅*    ≜ ε     ε*    ≜ ε
+ * (r*)* ≜ r*
+ * </pre>
+ * Unions are moreover normalized modulo associativity, commutativity and idempotence:
+ * they are kept right-nested, with their alternatives ordered by hash then structure and without duplicates.
+ * So a pattern has finitely many distinct derivatives, which can be numbered as automaton states.
+ */
+public class LRegExpSimplifyingFactory<T> extends LRegExpFactory<T> {
+    //hash collisions are broken structurally, so that the normal form does not depend on the construction order
+    static final Comparator<LRegExp.Expression<?>> ORDER =
+            Comparator.<LRegExp.Expression<?>>comparingInt(Object::hashCode)
+                    .thenComparing(LRegExp.Expression::getSymbol)
+                    .thenComparingInt(LRegExp.Expression::size)
+                    .thenComparing(LRegExpSimplifyingFactory::compareStructurally);
+
+    static int compareStructurally(LRegExp.Expression<?> lhs, LRegExp.Expression<?> rhs) {
+        if (lhs instanceof LRegExp.Token) {
+            return String.valueOf(((LRegExp.Token<?>) lhs).token).compareTo(String.valueOf(((LRegExp.Token<?>) rhs).token));
+        }
+        if (lhs instanceof LRegExp.Composite) {
+            List<? extends LRegExp.Expression<?>> lhsOperands = ((LRegExp.Composite<?>) lhs).operands;
+            List<? extends LRegExp.Expression<?>> rhsOperands = ((LRegExp.Composite<?>) rhs).operands;
+            for (int i = 0; i < Math.min(lhsOperands.size(), rhsOperands.size()); i++) {
+                int order = ORDER.compare(lhsOperands.get(i), rhsOperands.get(i));
+                if (order != 0) return order;
+            }
+            return Integer.compare(lhsOperands.size(), rhsOperands.size());
+        }
+        return 0;
+    }
+
+    @Override
+    public LRegExp.Expression<T> union(LRegExp.Expression<T> lhs, LRegExp.Expression<T> rhs) {
+        if (lhs instanceof LRegExp.Empty) return rhs;
+        if (rhs instanceof LRegExp.Empty) return lhs;
+        if (lhs.equals(rhs)) return lhs;
+        if (!(lhs instanceof LRegExp.Union) && !(rhs instanceof LRegExp.Union)) {
+            return ORDER.compare(lhs, rhs) <= 0 ? super.union(lhs, rhs) : super.union(rhs, lhs);
+        }
+        List<LRegExp.Expression<T>> alternatives = new ArrayList<>();
+        alternatives(lhs, alternatives);
+        alternatives(rhs, alternatives);
+        alternatives.sort(ORDER);
+
+        //drop the duplicates, which are adjacent in the order
+        List<LRegExp.Expression<T>> unique = new ArrayList<>(alternatives.size());
+        int run = 0;
+        for (LRegExp.Expression<T> alternative : alternatives) {
+            if (!unique.isEmpty() && ORDER.compare(unique.get(unique.size() - 1), alternative) != 0) {
+                run = unique.size();
+            }
+            if (!unique.subList(run, unique.size()).contains(alternative)) {
+                unique.add(alternative);
+            }
+        }
+
+        if (unique.isEmpty()) return empty();
+        LRegExp.Expression<T> result = unique.get(unique.size() - 1);
+        for (int i = unique.size() - 2; i >= 0; i--) {
+            result = super.union(unique.get(i), result);
+        }
+        return result;
+    }
+
+    void alternatives(LRegExp.Expression<T> expression, List<LRegExp.Expression<T>> result) {
+        if (expression instanceof LRegExp.Union) {
+            for (LRegExp.Expression<T> operand : ((LRegExp.Union<T>) expression).operands) {
+                alternatives(operand, result);
+            }
+            return;
+        }
+        if (expression instanceof LRegExp.Empty) return;
+        result.add(expression);
+    }
+
+    @Override
+    public LRegExp.Expression<T> concatenation(LRegExp.Expression<T> lhs, LRegExp.Expression<T> rhs) {
+        if (lhs instanceof LRegExp.Empty || rhs instanceof LRegExp.Empty) return empty();
+        if (lhs instanceof LRegExp.Epsilon) return rhs;
+        if (rhs instanceof LRegExp.Epsilon) return lhs;
+        return super.concatenation(lhs, rhs);
+    }
+
+    @Override
+    public LRegExp.Expression<T> kleeneStar(LRegExp.Expression<T> operand) {
+        if (operand instanceof LRegExp.Empty || operand instanceof LRegExp.Epsilon) return epsilon();
+        if (operand instanceof LRegExp.KleeneStar) return operand;
+        return super.kleeneStar(operand);
+    }
+}
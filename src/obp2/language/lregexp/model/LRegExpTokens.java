@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.model;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the distinct tokens occurring in an expression, in the order they are first met.
+ */
+public class LRegExpTokens<T> extends LRegExp.FunctionalVisitor<T, Set<T>, Set<T>> {
+
+    public static <T> Set<T> of(LRegExp.Expression<T> expression) {
+        return expression.accept(new LRegExpTokens<>(), new LinkedHashSet<>());
+    }
+
+    @Override
+    Set<T> visit(LRegExp.Empty<T> node, Set<T> input) {
+        return input;
+    }
+
+    @Override
+    Set<T> visit(LRegExp.Epsilon<T> node, Set<T> input) {
+        return input;
+    }
+
+    @Override
+    Set<T> visit(LRegExp.Token<T> node, Set<T> input) {
+        input.add(node.token);
+        return input;
+    }
+
+    @Override
+    Set<T> visit(LRegExp.Composite<T> node, Set<T> input) {
+        for (LRegExp.Expression<T> operand : node.operands) {
+            operand.accept(this, input);
+        }
+        return input;
+    }
+
+    @Override
+    Set<T> visit(LRegExp.Union<T> node, Set<T> input) {
+        return visit((LRegExp.Composite<T>) node, input);
+    }
+
+    @Override
+    Set<T> visit(LRegExp.Concatenation<T> node, Set<T> input) {
+        return visit((LRegExp.Composite<T>) node, input);
+    }
+
+    @Override
+    Set<T> visit(LRegExp.KleeneStar<T> node, Set<T> input) {
+        return visit((LRegExp.Composite<T>) node, input);
+    }
+}
@@ -24,12 +24,38 @@
 
 package obp2.language.lregexp.runtime;
 
+/**
+ * Reads the next symbol. The actions of a {@link LRegExpTransitionRelation} read a class of its alphabet,
+ * the symbols the program cannot tell apart; the singleton instance reads any symbol.
+ */
 public class LRegExpAction {
     // The field must be declared volatile so that double check lock would work
     // correctly.
     private static volatile LRegExpAction instance;
 
+    //the class of the alphabet read, -1 for any symbol
+    final int symbolClass;
+    //the token read, null for the other symbols
+    final Object symbol;
+
     private LRegExpAction() {
+        this(-1, null);
+    }
+
+    LRegExpAction(int symbolClass, Object symbol) {
+        this.symbolClass = symbolClass;
+        this.symbol = symbol;
+    }
+
+    public int symbolClass() {
+        return symbolClass;
+    }
+
+    /**
+     * @return the token read, or null for the symbols which are not tokens of the program
+     */
+    public Object symbol() {
+        return symbol;
     }
 
     public static LRegExpAction getInstance() {
@@ -56,4 +82,10 @@ public class LRegExpAction {
             return instance;
         }
     }
+
+    @Override
+    public String toString() {
+        if (symbolClass < 0) return "next";
+        return symbol == null ? "other" : String.valueOf(symbol);
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.runtime;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An unbounded array readable without locks, growing by chunks of doubling sizes installed by CAS.
+ * Chunk k holds the indices from {@code BASE * (2^k - 1)}, so a chunk is never copied nor moved,
+ * and the elements are published by volatile writes.
+ */
+class LRegExpConcurrentArray<E> {
+    static final int BASE_SHIFT = 10;
+    static final int BASE = 1 << BASE_SHIFT;
+    static final int CHUNKS = 32 - BASE_SHIFT;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks = new AtomicReferenceArray<>(CHUNKS);
+
+    static int chunkOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> BASE_SHIFT) + 1);
+    }
+
+    static int offsetOf(int index, int chunk) {
+        return index - BASE * ((1 << chunk) - 1);
+    }
+
+    /**
+     * @return the element, or null if not set yet
+     */
+    E get(int index) {
+        int chunk = chunkOf(index);
+        AtomicReferenceArray<E> elements = chunks.get(chunk);
+        return elements == null ? null : elements.get(offsetOf(index, chunk));
+    }
+
+    void set(int index, E value) {
+        int chunk = chunkOf(index);
+        chunk(chunk).set(offsetOf(index, chunk), value);
+    }
+
+    /**
+     * Sets the element unless already set.
+     * @return the element after the call, the value or the one set first by a concurrent thread
+     */
+    E setIfAbsent(int index, E value) {
+        int chunk = chunkOf(index);
+        AtomicReferenceArray<E> elements = chunk(chunk);
+        int offset = offsetOf(index, chunk);
+        if (elements.compareAndSet(offset, null, value)) return value;
+        return elements.get(offset);
+    }
+
+    private AtomicReferenceArray<E> chunk(int chunk) {
+        AtomicReferenceArray<E> elements = chunks.get(chunk);
+        if (elements != null) return elements;
+        chunks.compareAndSet(chunk, null, new AtomicReferenceArray<>(BASE << chunk));
+        return chunks.get(chunk);
+    }
+}
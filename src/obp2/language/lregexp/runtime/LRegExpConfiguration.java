@@ -29,37 +29,92 @@ import obp2.language.lregexp.model.LRegExp;
 
 import java.util.Objects;
 
+/**
+ * A configuration is either the current derivative of the program,
+ * or, in compact mode, the id of that derivative in a shared {@link LRegExpStateTable}.
+ * The compact configurations hash and compare their ids in constant time,
+ * a compact configuration is never equal to an expression one.
+ */
 public class LRegExpConfiguration<T> extends DefaultConfiguration<LRegExpConfiguration<T>> {
+	//null in compact mode
 	public LRegExp.Expression<T> expression;
-	
+	//the table of the state, null unless in compact mode
+	final LRegExpStateTable<T> table;
+	final int state;
+
 	@Override
 	public LRegExpConfiguration<T> createCopy() {
-		LRegExpConfiguration<T> newC = new LRegExpConfiguration<T>();
-		//TODO: do we need a deep-copy here?
-		newC.expression = expression;
-		return newC;
+		if (table != null) {
+			return new LRegExpConfiguration<>(table, state);
+		}
+		//the expressions are immutable, sharing them is safe
+		return new LRegExpConfiguration<>(expression, state);
 	}
 
 	public LRegExpConfiguration() {
 		this.expression = null;
+		this.table = null;
+		this.state = -1;
 	}
 
 	public LRegExpConfiguration(LRegExp.Expression<T> expression) {
 		this.expression = Objects.requireNonNull(expression);
+		this.table = null;
+		this.state = -1;
+	}
+
+	/**
+	 * An expression configuration remembering the state of the expression in the lazy DFA of its semantics.
+	 * The state only spares its lookup, the configuration still hashes and compares its expression.
+	 */
+	LRegExpConfiguration(LRegExp.Expression<T> expression, int state) {
+		this.expression = expression;
+		this.table = null;
+		this.state = state;
+	}
+
+	public LRegExpConfiguration(LRegExpStateTable<T> table, int state) {
+		this.expression = null;
+		this.table = Objects.requireNonNull(table);
+		this.state = state;
+	}
+
+	/**
+	 * @return the current derivative, looked up in the table in compact mode
+	 */
+	public LRegExp.Expression<T> expression() {
+		return table == null ? expression : table.expression(state);
+	}
+
+	public boolean isCompact() {
+		return table != null;
+	}
+
+	/**
+	 * @return the state id in compact mode, the lazy DFA state if known, -1 otherwise
+	 */
+	public int state() {
+		return state;
 	}
 
 	@Override
 	public int hashCode() {
-		return expression.hashCode();
+		return table == null ? expression.hashCode() : state * 0x9E3779B9;
 	}
-	
+
 	@Override
 	public boolean equals(Object obj) {
-		return super.equals(obj) || (obj instanceof LRegExpConfiguration && expression.equals(((LRegExpConfiguration<?>) obj).expression));
+		if (super.equals(obj)) return true;
+		if (!(obj instanceof LRegExpConfiguration)) return false;
+		LRegExpConfiguration<?> other = (LRegExpConfiguration<?>) obj;
+		if (table != null || other.table != null) {
+			return table == other.table && state == other.state;
+		}
+		return expression.equals(other.expression);
 	}
 
 	@Override
 	public String toString() {
-		return String.valueOf(expression);
+		return table == null ? String.valueOf(expression) : state + ":" + table.expression(state);
 	}
 }
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.runtime;
+
+import obp2.language.lregexp.automata.LRegExpAlphabet;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state graph of a program: its derivatives numbered by a {@link LRegExpStateTable},
+ * and one successor per class of its alphabet, computed once per state.
+ * The graph is thread-safe and shared by the copies of a transition relation, its lookups never block.
+ * A missing row is computed without lock and installed by CAS, a thread losing the race adopts the installed row;
+ * the rows are the same since the table numbers the derivatives consistently.
+ */
+public class LRegExpStateGraph<T> {
+    final LRegExpStateTable<T> table;
+    final LRegExpAlphabet<T> alphabet;
+    final LRegExpDerivative<T> derivative;
+    final List<LRegExpAction> actions;
+    final int initial;
+    //the successors of each state by class, null until computed
+    final LRegExpConcurrentArray<int[]> successors = new LRegExpConcurrentArray<>();
+
+    public LRegExpStateGraph(LRegExp.Expression<T> program) {
+        this(program, new LRegExpStateTable<>());
+    }
+
+    public LRegExpStateGraph(LRegExp.Expression<T> program, LRegExpStateTable<T> table) {
+        this.table = table;
+        this.alphabet = LRegExpAlphabet.of(program);
+        this.derivative = new LRegExpDerivative<>(table.factory());
+        List<LRegExpAction> actions = new ArrayList<>(alphabet.size());
+        for (int symbolClass = 0; symbolClass < alphabet.size(); symbolClass++) {
+            actions.add(new LRegExpAction(symbolClass, alphabet.representative(symbolClass)));
+        }
+        this.actions = Collections.unmodifiableList(actions);
+        this.initial = table.idOf(program);
+    }
+
+    public int initial() {
+        return initial;
+    }
+
+    /**
+     * @return the action reading each class of the alphabet, indexed by class
+     */
+    public List<LRegExpAction> actions() {
+        return actions;
+    }
+
+    public int successor(int state, int symbolClass) {
+        return successors(state)[symbolClass];
+    }
+
+    /**
+     * @return the successors of the state by class, the array must not be modified
+     */
+    public int[] successors(int state) {
+        int[] row = successors.get(state);
+        if (row != null) {
+            if (LRegExpMetrics.ENABLED) {
+                LRegExpMetrics.hit();
+            }
+            return row;
+        }
+
+        LRegExp.Expression<T> expression = table.expression(state);
+        row = new int[alphabet.size()];
+        for (int symbolClass = 0; symbolClass < row.length; symbolClass++) {
+            row[symbolClass] = table.idOf(derivative(expression, alphabet.representative(symbolClass)));
+        }
+        return successors.setIfAbsent(state, row);
+    }
+
+    LRegExp.Expression<T> derivative(LRegExp.Expression<T> source, T token) {
+        if (LRegExpMetrics.ENABLED) {
+            LRegExpMetrics.miss();
+        }
+        return LRegExpMetrics.derivative(derivative, source, token);
+    }
+
+    public boolean isAccepting(int state) {
+        return table.expression(state).isNullable();
+    }
+
+    public boolean isDead(int state) {
+        return table.expression(state) instanceof LRegExp.Empty;
+    }
+
+    public LRegExpStateTable<T> table() {
+        return table;
+    }
+
+    public LRegExpAlphabet<T> alphabet() {
+        return alphabet;
+    }
+}
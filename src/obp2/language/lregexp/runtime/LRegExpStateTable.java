@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.language.lregexp.runtime;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpFactory;
+import obp2.language.lregexp.model.LRegExpMetrics;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Numbers the canonical derivatives of the programs, so that a configuration is an int state id.
+ * The table is thread-safe and meant to be shared by all the configurations, and all the copies of a transition relation,
+ * its ids are dense and stable: a state keeps its id for the lifetime of the table.
+ * The lookups never block: the ids are found in a concurrent map, and the states in a {@link LRegExpConcurrentArray}.
+ * A new state takes the next id once, under the lock of its bin in the map, and is published before its id escapes.
+ * The ids are serialized as unsigned varints, one to five bytes.
+ */
+public class LRegExpStateTable<T> {
+    final LRegExpFactory<T> factory;
+    final ConcurrentHashMap<LRegExp.Expression<T>, Integer> ids = new ConcurrentHashMap<>();
+    final LRegExpConcurrentArray<LRegExp.Expression<T>> expressions = new LRegExpConcurrentArray<>();
+    final AtomicInteger size = new AtomicInteger();
+
+    public LRegExpStateTable() {
+        this(LRegExpFactory.simplifying());
+    }
+
+    public LRegExpStateTable(LRegExpFactory<T> factory) {
+        this.factory = factory;
+    }
+
+    public LRegExpFactory<T> factory() {
+        return factory;
+    }
+
+    /**
+     * @return the id of the expression, interned by the factory of the table
+     */
+    public int idOf(LRegExp.Expression<T> expression) {
+        Integer id = ids.get(expression);
+        if (id != null) return id;
+        LRegExp.Expression<T> canonical = factory.isCanonical(expression) ? expression : factory.intern(expression);
+        if (!LRegExpMetrics.ENABLED) {
+            return ids.computeIfAbsent(canonical, this::add);
+        }
+        //the listeners run after the map releases its lock, and only in the thread which added the state
+        boolean[] added = new boolean[1];
+        id = ids.computeIfAbsent(canonical, key -> {
+            added[0] = true;
+            return add(key);
+        });
+        if (added[0]) {
+            LRegExpMetrics.state(canonical);
+        }
+        return id;
+    }
+
+    private Integer add(LRegExp.Expression<T> canonical) {
+        int id = size.getAndIncrement();
+        expressions.set(id, canonical);
+        return id;
+    }
+
+    public LRegExp.Expression<T> expression(int state) {
+        LRegExp.Expression<T> expression = state < 0 ? null : expressions.get(state);
+        if (expression == null) {
+            throw new IllegalArgumentException("LRegExp: unknown state " + state);
+        }
+        return expression;
+    }
+
+    public LRegExpConfiguration<T> configuration(LRegExp.Expression<T> expression) {
+        return new LRegExpConfiguration<>(this, idOf(expression));
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Writes the state id of a configuration of this table.
+     */
+    public void write(LRegExpConfiguration<T> configuration, ByteBuffer buffer) {
+        int state = stateOf(configuration);
+        while ((state & ~0x7F) != 0) {
+            buffer.put((byte) ((state & 0x7F) | 0x80));
+            state >>>= 7;
+        }
+        buffer.put((byte) state);
+    }
+
+    public byte[] serialize(LRegExpConfiguration<T> configuration) {
+        ByteBuffer buffer = ByteBuffer.allocate(5);
+        write(configuration, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not the id of a state of this table
+     */
+    public LRegExpConfiguration<T> read(ByteBuffer buffer) {
+        int state = 0;
+        try {
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                state |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+                if (shift == 28) throw new IllegalArgumentException("LRegExp: malformed state id");
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("LRegExp: truncated state id", e);
+        }
+        //checks the state
+        expression(state);
+        return new LRegExpConfiguration<>(this, state);
+    }
+
+    public LRegExpConfiguration<T> deserialize(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return the id of the configuration in this table, numbering its expression if it comes from another table
+     */
+    public int stateOf(LRegExpConfiguration<T> configuration) {
+        if (configuration.table == this) return configuration.state;
+        return idOf(configuration.expression());
+    }
+}
@@ -33,9 +33,14 @@ import obp2.runtime.core.defaults.DefaultLanguageService;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * The state graph of the program: the initial configuration is the program,
+ * each configuration fires one transition per class of the alphabet of the program, to its derivative by that class.
+ * The configurations are compact, and the successors of each state are computed once, in a {@link LRegExpStateGraph}
+ * shared by the copies of the relation.
+ */
 public class LRegExpTransitionRelation<T>
 		extends DefaultLanguageService<LRegExpConfiguration, LRegExpAction, Void>
 		implements ITransitionRelation<LRegExpConfiguration, LRegExpAction, Void>,
@@ -45,37 +50,47 @@ public class LRegExpTransitionRelation<T>
 
 	public LRegExp.Expression<T> program;
 
+	final LRegExpStateGraph<T> graph;
+
 	public LRegExpTransitionRelation(String name, LRegExp.Expression<T> program) {
+		this(name, program, new LRegExpStateGraph<>(program));
+	}
+
+	LRegExpTransitionRelation(String name, LRegExp.Expression<T> program, LRegExpStateGraph<T> graph) {
 		this.name = name;
 		this.program = program;
+		this.graph = graph;
 	}
 
 	@Override
 	public LRegExpTransitionRelation<T> createCopy() {
-		return new LRegExpTransitionRelation<>(name, program);
+		return new LRegExpTransitionRelation<>(name, program, graph);
 	}
-	
+
+	public LRegExpStateGraph<T> graph() {
+		return graph;
+	}
+
 	@Override
 	public Set<LRegExpConfiguration> initialConfigurations() {
-		Set<LRegExpConfiguration> initialSet = new HashSet<>();
-		LRegExpConfiguration config = new LRegExpConfiguration();
-//		config.index = 0;
-		return Collections.singleton(config);
+		return Collections.singleton(new LRegExpConfiguration<>(graph.table, graph.initial));
 	}
 
 	@Override
 	public Collection<LRegExpAction> fireableTransitionsFrom(LRegExpConfiguration source) {
-//		if (source.index + 1 >= program.string.length()) return Collections.emptyList();
-
-		return Collections.singleton(LRegExpAction.getInstance());
+		return graph.actions;
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public IFiredTransition<LRegExpConfiguration, LRegExpAction, Void> fireOneTransition(LRegExpConfiguration source, LRegExpAction transition) {
-		//create the new configuration
-		LRegExpConfiguration target = new LRegExpConfiguration();
-//		target.index 	  = source.index + 1;
-
+		int symbolClass = transition.symbolClass;
+		if (symbolClass < 0 || symbolClass >= graph.actions.size() || graph.actions.get(symbolClass) != transition) {
+			throw new IllegalArgumentException("LRegExp: " + transition + " is not fireable in " + name);
+		}
+		int state = graph.table.stateOf(source);
+		int successor = graph.successor(state, symbolClass);
+		LRegExpConfiguration target = new LRegExpConfiguration<>(graph.table, successor);
 		return new FiredTransition<>(source, target, transition);
 	}
 }
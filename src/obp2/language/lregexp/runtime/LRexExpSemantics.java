@@ -24,25 +24,59 @@
 
 package obp2.language.lregexp.runtime;
 
+import obp2.language.lregexp.automata.LRegExpLazyDFA;
 import obp2.language.lregexp.model.LRegExp;
-import obp2.language.lregexp.model.LRegExpBooleanNullability;
 import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import obp2.language.lregexp.model.LRegExpMetrics;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 
+/**
+ * In lazy-DFA mode the semantics grows its automaton as it executes,
+ * it is not thread-safe and should be confined to one thread (one semantics per thread).
+ */
 public class LRexExpSemantics<T> implements IOSemantics<LRegExpConfiguration<T>, LRegExpDerivative<T>, T, Boolean> {
     LRegExp.Expression<T> expression;
     LRegExpDerivative<T> derivator;
+    //in lazy-DFA mode the derivatives are memoized as automaton states, null otherwise
+    LRegExpLazyDFA<T> dfa;
+    //in compact mode the configurations are state ids in this table, null otherwise
+    LRegExpStateTable<T> states;
 
     public LRexExpSemantics(LRegExp.Expression<T> expression) {
-        this.expression = expression;
-        this.derivator = new LRegExpDerivative<>();
+        this(expression, LRegExpFactory.simplifying());
+    }
+
+    public LRexExpSemantics(LRegExp.Expression<T> expression, LRegExpFactory<T> factory) {
+        this(expression, factory, false);
+    }
+
+    public LRexExpSemantics(LRegExp.Expression<T> expression, LRegExpFactory<T> factory, boolean lazyDFA) {
+        //hash-consing the program lets all its derivatives share their subterms
+        this.expression = factory.intern(expression);
+        this.derivator = new LRegExpDerivative<>(factory);
+        this.dfa = lazyDFA ? new LRegExpLazyDFA<>(this.expression, factory) : null;
+    }
+
+    /**
+     * The configurations are compact, numbered by the shared table.
+     */
+    public LRexExpSemantics(LRegExp.Expression<T> expression, LRegExpStateTable<T> states) {
+        this(expression, states.factory(), false);
+        this.states = states;
     }
 
     @Override
     public Collection<LRegExpConfiguration<T>> initial() {
+        if (states != null) {
+            return Collections.singleton(states.configuration(expression));
+        }
+        if (dfa != null) {
+            return Collections.singleton(new LRegExpConfiguration<>(expression, dfa.initial()));
+        }
         return Collections.singleton( new LRegExpConfiguration<>(expression) );
     }
 
@@ -52,8 +86,21 @@ public class LRexExpSemantics<T> implements IOSemantics<LRegExpConfiguration<T>,
     }
     @Override
     public Collection<Outcome<Boolean, LRegExpConfiguration<T>>> execute(LRegExpDerivative<T> action, T input, LRegExpConfiguration<T> source) {
-        LRegExpConfiguration<T> target = new LRegExpConfiguration<>( source.expression.accept(action, input) );
-        boolean isNullable = target.expression.accept(new LRegExpBooleanNullability<>(), null);
+        if (dfa != null) {
+            int state = source.state();
+            //the configurations not reached by this automaton are looked up by their expression
+            if (state < 0 || state >= dfa.size() || dfa.expression(state) != source.expression) {
+                state = dfa.stateOf(source.expression());
+            }
+            state = dfa.next(state, input);
+            return Collections.singleton(new Outcome<>(dfa.isAccepting(state), new LRegExpConfiguration<>(dfa.expression(state), state)));
+        }
+        if (states != null) {
+            LRegExpConfiguration<T> target = states.configuration(LRegExpMetrics.derivative(action, source.expression(), input));
+            return Collections.singleton(new Outcome<>(target.expression().isNullable(), target));
+        }
+        LRegExpConfiguration<T> target = new LRegExpConfiguration<>( LRegExpMetrics.derivative(action, source.expression, input) );
+        boolean isNullable = target.expression.isNullable();
         return Collections.singleton(new Outcome<>(isNullable, target));
     }
 }
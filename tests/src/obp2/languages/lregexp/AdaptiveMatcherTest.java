@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpAdaptiveMatcher;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveMatcherTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testStaysDFAWithinBudget() {
+        LRegExpAdaptiveMatcher matcher = new LRegExpAdaptiveMatcher(reader.readExpression("(a|b)*abb"));
+        assertTrue(matcher.matches("ababababb"));
+        assertFalse(matcher.isNFA());
+    }
+
+    @Test
+    public void testSwitchesOnStates() {
+        LRegExp.Expression<Character> expression = reader.readExpression(MatcherOracle.nthFromEnd(12));
+        LRegExpAdaptiveMatcher matcher = new LRegExpAdaptiveMatcher(expression, 16, Integer.MAX_VALUE);
+        Random random = new Random(22);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        input.setCharAt(input.length() - 13, 'a');
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(input));
+        assertTrue(matcher.isNFA());
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("c"));
+
+        //the restart is in NFA mode, with the same language
+        matcher.reset();
+        assertTrue(matcher.isNFA());
+        ICharMatcher.Status prefix = input.charAt(100 - 13) == 'a' ? ICharMatcher.Status.ACCEPT : ICharMatcher.Status.REJECT;
+        assertEquals(prefix, matcher.feed(input.substring(0, 100)));
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(input.substring(100)));
+    }
+
+    @Test
+    public void testSwitchesOnSize() {
+        LRegExpAdaptiveMatcher matcher = new LRegExpAdaptiveMatcher(reader.readExpression("a*(b|c)*d"), Integer.MAX_VALUE, 1);
+        assertTrue(matcher.isNFA());
+        assertTrue(matcher.matches("aabcbd"));
+        matcher.reset();
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("ada"));
+    }
+
+    @Test
+    public void testAgreesWithDerivatives() {
+        for (int budget = 1; budget <= 4; budget++) {
+            int maxStates = budget;
+            MatcherOracle.assertAgreesOnPatterns(expression -> new LRegExpAdaptiveMatcher(expression, maxStates, Integer.MAX_VALUE), 7 + budget);
+        }
+    }
+}
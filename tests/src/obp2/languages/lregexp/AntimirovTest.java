@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpAntimirov;
+import obp2.language.lregexp.automata.LRegExpAntimirovMatcher;
+import obp2.language.lregexp.automata.LRegExpIntTerms;
+import obp2.language.lregexp.automata.LRegExpLazyDFA;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AntimirovTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testPartialDerivatives() {
+        LRegExpAntimirov automaton = LRegExpAntimirov.of(reader.readExpression("(a|b)*a(a|b)"));
+        LRegExpIntTerms terms = automaton.terms();
+        int a = terms.classOf('a');
+        //by a: the star again, or the last (a|b)
+        assertEquals(2, automaton.successors(0, a).length);
+        assertEquals(1, automaton.successors(0, terms.classOf('b')).length);
+        assertEquals(0, automaton.successors(0, terms.classOf('c')).length);
+        //cached
+        assertSame(automaton.successors(0, a), automaton.successors(0, a));
+    }
+
+    @Test
+    public void testLinearStates() {
+        int n = 16;
+        LRegExp.Expression<Character> expression = reader.readExpression(MatcherOracle.nthFromEnd(n));
+        LRegExpAntimirov automaton = LRegExpAntimirov.of(expression);
+        LRegExpAntimirovMatcher matcher = automaton.matcher();
+        Random random = new Random(24);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            input.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        input.setCharAt(input.length() - n - 1, 'a');
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(input));
+        assertTrue(automaton.size() <= n + 2);
+
+        //the derivatives need a state per suffix of length n
+        LRegExpLazyDFA<Character> dfa = new LRegExpLazyDFA<>(expression);
+        int state = dfa.initial();
+        for (int i = 0; i < input.length(); i++) {
+            state = dfa.next(state, input.charAt(i));
+        }
+        assertTrue(dfa.size() > 1000);
+    }
+
+    @Test
+    public void testAgreesWithDerivatives() {
+        MatcherOracle.assertAgreesOnPatterns(expression -> LRegExpAntimirov.of(expression).matcher(), 25);
+    }
+
+    @Test
+    public void testEmpty() {
+        LRegExpFactory<Character> factory = LRegExpFactory.shared();
+        LRegExpAntimirovMatcher matcher = LRegExpAntimirov.of(factory.empty()).matcher();
+        assertEquals(ICharMatcher.Status.DEAD, matcher.status());
+
+        matcher = LRegExpAntimirov.of(factory.union(
+                factory.concatenation(factory.token('a'), factory.empty()),
+                factory.concatenation(factory.token('a'), factory.token('b')))).matcher();
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed("a"));
+        assertEquals(1, matcher.count());
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed("b"));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("b"));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCache;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CacheTest {
+
+    @Test
+    public void testExpression() {
+        LRegExp.Expression<Character> expression = LRegExpCache.expression("(a|b)*abb");
+        assertSame(expression, LRegExpCache.expression("(a|b)*abb"));
+        assertTrue(LRegExpFactory.<Character>simplifying().isCanonical(expression));
+        //the factory is part of the key
+        LRegExp.Expression<Character> raw = LRegExpCache.expression("ε.a", LRegExpFactory.shared());
+        assertTrue(raw instanceof LRegExp.Concatenation);
+        assertTrue(LRegExpCache.expression("ε.a") instanceof LRegExp.Token);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformed() {
+        LRegExpCache.expression("(a|b");
+    }
+
+    @Test
+    public void testLeastRecentlyUsed() {
+        LRegExpCache<String, String> cache = new LRegExpCache<>(2, Long.MAX_VALUE, String::length);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.hits());
+        assertEquals(3, cache.misses());
+    }
+
+    @Test
+    public void testWeight() {
+        LRegExpCache<String, String> cache = new LRegExpCache<>(100, 10, String::length);
+        cache.get("aaaa", String::toUpperCase);
+        cache.get("bbbb", String::toUpperCase);
+        assertEquals(8, cache.weight());
+        cache.get("cccc", String::toUpperCase);
+        assertEquals(8, cache.weight());
+        assertNull(cache.getIfPresent("aaaa"));
+        cache.invalidate("bbbb");
+        assertEquals(4, cache.weight());
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        LRegExpCache<String, String> cache = new LRegExpCache<>(10, 100, String::length);
+        try {
+            cache.get("a", key -> {
+                throw new IllegalStateException();
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, cache.size());
+        assertEquals("A", cache.get("a", String::toUpperCase));
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        LRegExpCache<String, String> cache = new LRegExpCache<>(10, 100, String::length);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("a", key -> {
+                loads.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return key.toUpperCase();
+            })));
+            started.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.get("a", key -> {
+                    loads.incrementAndGet();
+                    return key.toUpperCase();
+                })));
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("A", result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
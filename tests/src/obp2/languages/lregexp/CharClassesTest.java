@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpAlphabet;
+import obp2.language.lregexp.automata.LRegExpCharClasses;
+import obp2.language.lregexp.automata.LRegExpLazyDFA;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CharClassesTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testLatin1() {
+        LRegExpCharClasses classes = new LRegExpCharClasses(Arrays.asList('b', 'a', 'z'));
+        assertEquals(4, classes.size());
+        assertEquals(0, classes.classOf('a'));
+        assertEquals(1, classes.classOf('b'));
+        assertEquals(2, classes.classOf('z'));
+        assertEquals(classes.other(), classes.classOf('c'));
+        assertEquals(classes.other(), classes.classOf('ÿ'));
+        assertEquals(classes.other(), classes.classOf('中'));
+        assertEquals(classes.other(), classes.classOf(classes.representative(classes.other())));
+    }
+
+    @Test
+    public void testRanges() {
+        LRegExpCharClasses classes = new LRegExpCharClasses(Arrays.asList('a', 'Ā', '中', '丮', '￿'));
+        assertEquals(6, classes.size());
+        assertEquals(0, classes.classOf('a'));
+        assertEquals(1, classes.classOf('Ā'));
+        assertEquals(2, classes.classOf('中'));
+        assertEquals(3, classes.classOf('丮'));
+        assertEquals(4, classes.classOf('￿'));
+        assertEquals(classes.other(), classes.classOf('ā'));
+        assertEquals(classes.other(), classes.classOf('丬'));
+        assertEquals(classes.other(), classes.classOf('丯'));
+        assertEquals(classes.other(), classes.classOf('￾'));
+        for (int symbolClass = 0; symbolClass < classes.size(); symbolClass++) {
+            assertEquals(symbolClass, classes.classOf(classes.representative(symbolClass)));
+        }
+    }
+
+    @Test
+    public void testAlphabet() {
+        LRegExpAlphabet<Character> alphabet = LRegExpAlphabet.of(reader.readExpression("(a|b)*abb"));
+        assertEquals(3, alphabet.size());
+        assertEquals(0, alphabet.classOf('a'));
+        assertEquals(1, alphabet.classOf('b'));
+        assertTrue(alphabet.isOther(alphabet.classOf('c')));
+        //the typed views only hold tokens
+        StringBuilder tokens = new StringBuilder();
+        for (Character token : alphabet.representatives()) {
+            tokens.append(token.charValue());
+        }
+        assertEquals("ab", tokens.toString());
+        assertEquals(Character.valueOf('b'), alphabet.representative(1));
+        assertNull(alphabet.representative(alphabet.other()));
+    }
+
+    @Test
+    public void testLazyDFAByClass() {
+        LRegExp.Expression<Character> expression = reader.readExpression("(a|b)*abb|c");
+        LRegExpCharClasses classes = LRegExpCharClasses.of(expression);
+        LRegExpLazyDFA<Character> byClass = new LRegExpLazyDFA<>(expression, LRegExpFactory.simplifying(), classes.representatives());
+        LRegExpLazyDFA<Character> bySymbol = new LRegExpLazyDFA<>(expression);
+        int stateByClass = byClass.initial();
+        int stateBySymbol = bySymbol.initial();
+        for (char c : "ababbcabbxabb".toCharArray()) {
+            stateByClass = byClass.nextOfClass(stateByClass, classes.classOf(c));
+            stateBySymbol = bySymbol.next(stateBySymbol, c);
+            assertEquals(bySymbol.expression(stateBySymbol), byClass.expression(stateByClass));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpCodegen;
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.automata.LRegExpGeneratedMatcher;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CodegenTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testAgreesWithDFA() {
+        String[] patterns = {"(a|b)*abb", "((ab)|(ba))*", "a*b*c*", "((a|b).c)*|a", "ε", "∅", "(a.z)*"};
+        Random random = new Random(14);
+        for (String pattern : patterns) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            LRegExpDFA dfa = LRegExpDFA.compile(expression);
+            ICharMatcher matcher = LRegExpCodegen.matcher(expression);
+            assertTrue(matcher instanceof LRegExpGeneratedMatcher);
+            for (int i = 0; i < 200; i++) {
+                StringBuilder input = new StringBuilder();
+                for (int j = random.nextInt(10); j > 0; j--) {
+                    input.append("abcdz".charAt(random.nextInt(5)));
+                }
+                assertEquals(pattern + " on " + input, dfa.matches(input), matcher.matches(input));
+                matcher.reset();
+                assertEquals(pattern + " on " + input, dfa.matches(input), matcher.feed(input.toString().toCharArray()) == ICharMatcher.Status.ACCEPT);
+            }
+        }
+    }
+
+    @Test
+    public void testChunks() {
+        ICharMatcher matcher = LRegExpCodegen.matcher(reader.readExpression("(ab)*c"));
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed("aba"));
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed(new char[]{'b', 'a', 'b'}));
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed("c"));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("c"));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("abc"));
+        matcher.reset();
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed("c"));
+    }
+
+    @Test
+    public void testSparseTokens() {
+        LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+        //the tokens are too far apart for a tableswitch
+        LRegExp.Expression<Character> expression = factory.kleeneStar(
+                factory.union(factory.token('a'), factory.union(factory.token('中'), factory.token('é'))));
+        ICharMatcher matcher = LRegExpCodegen.matcher(expression);
+        assertTrue(matcher.matches("a中éa"));
+        assertFalse(matcher.matches("a中éb"));
+    }
+
+    @Test
+    public void testLongFeed() {
+        LRegExp.Expression<Character> expression = reader.readExpression("(abc)*");
+        ICharMatcher matcher = LRegExpCodegen.matcher(expression);
+        assertTrue(matcher instanceof LRegExpGeneratedMatcher);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) input.append("abc");
+        //the input spans several slices
+        assertTrue(matcher.matches(input));
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(input.toString().toCharArray(), 3, 3000));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed(input.append('a').reverse().toString().toCharArray()));
+    }
+
+    @Test
+    public void testUncompiledSize() {
+        //a hundred states fit in a class file, but not in a method HotSpot compiles
+        StringBuilder pattern = new StringBuilder("(");
+        for (int i = 0; i < 100; i++) pattern.append((char) ('a' + i % 26));
+        LRegExp.Expression<Character> expression = reader.readExpression(pattern.append(")*").toString());
+        ICharMatcher matcher = LRegExpCodegen.matcher(expression);
+        assertFalse(matcher instanceof LRegExpGeneratedMatcher);
+        assertTrue(matcher.matches(pattern.substring(1, 101)));
+    }
+
+    @Test
+    public void testTooMuchCode() {
+        LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+        LRegExp.Expression<Character> expression = factory.epsilon();
+        //far above the method size the JIT compiles, but shallow enough for the recursive visitors
+        for (int i = 0; i < 500; i++) {
+            expression = factory.concatenation(factory.token((char) ('a' + i % 26)), expression);
+        }
+        ICharMatcher matcher = LRegExpCodegen.matcher(expression);
+        //the interpreted fallback
+        assertFalse(matcher instanceof LRegExpGeneratedMatcher);
+        assertFalse(matcher.matches("abc"));
+    }
+}
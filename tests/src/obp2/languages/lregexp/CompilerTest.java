@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpCompiledMatcher;
+import obp2.language.lregexp.automata.LRegExpCompiler;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompilerTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testAgreesWithDerivative() {
+        String[] patterns = {"(a|b)*abb", "a*b*c*", "((a|b).c)*|a", "(a*)*b", "ε.a", "∅|b"};
+        LRegExpDerivative<Character> derivative = new LRegExpDerivative<>();
+        for (String pattern : patterns) {
+            LRegExpCompiler<Character> compiler = new LRegExpCompiler<>(reader.readExpression(pattern));
+            LRegExp.Expression<Character> expression = compiler.pattern();
+            for (char c : "abcd".toCharArray()) {
+                assertSame(pattern + " by " + c, expression.accept(derivative, c), compiler.derivative(expression, c));
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedHandles() {
+        LRegExpCompiler<Character> compiler = new LRegExpCompiler<>(reader.readExpression("(a|b)*a(a|b)(a|b)(a|b)"));
+        LRegExpDerivative<Character> derivative = new LRegExpDerivative<>();
+        int size = compiler.size();
+        assertNotNull(compiler.handle(compiler.pattern()));
+        //the derivatives are walked over the handles of the subterms, none is compiled
+        LRegExp.Expression<Character> state = compiler.pattern();
+        Random random = new Random(14);
+        for (int i = 0; i < 100; i++) {
+            char c = random.nextBoolean() ? 'a' : 'b';
+            LRegExp.Expression<Character> next = compiler.derivative(state, c);
+            assertSame(state.accept(derivative, c), next);
+            state = next;
+        }
+        assertEquals(size, compiler.size());
+    }
+
+    @Test
+    public void testManyBuckets() {
+        //enough subterms to split the generated dispatch into several buckets
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            if (i > 0) pattern.append('|');
+            pattern.append((char) ('a' + i % 26)).append((char) ('a' + i / 26 % 26)).append((char) ('a' + i / 676 % 26));
+        }
+        LRegExpCompiler<Character> compiler = new LRegExpCompiler<>(reader.readExpression(pattern.toString()));
+        LRegExpDerivative<Character> derivative = new LRegExpDerivative<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 50; i++) {
+            LRegExp.Expression<Character> state = compiler.pattern();
+            for (int j = 0; j < 3; j++) {
+                char c = (char) ('a' + random.nextInt(26));
+                LRegExp.Expression<Character> next = compiler.derivative(state, c);
+                assertSame(state.accept(derivative, c), next);
+                state = next;
+            }
+        }
+    }
+
+    @Test
+    public void testAgreesWithDerivatives() {
+        MatcherOracle.assertAgreesOnPatterns(LRegExpCompiledMatcher::new, 13);
+    }
+}
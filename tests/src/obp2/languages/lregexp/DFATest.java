@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.model.*;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class DFATest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    //an oracle independent of the factories: the same pattern in the syntax of java.util.regex
+    static Pattern toJavaPattern(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char ch : pattern.toCharArray()) {
+            switch (ch) {
+                case '(':
+                    regex.append("(?:");
+                    break;
+                case ')':
+                case '|':
+                case '*':
+                    regex.append(ch);
+                    break;
+                case '.':
+                    break;
+                case '∅':
+                    regex.append("[^\\s\\S]");
+                    break;
+                case 'ε':
+                    regex.append("(?:)");
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(ch)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    @Test
+    public void testCompile() {
+        LRegExpDFA dfa = LRegExpDFA.compile(reader.readExpression("(a|b)*abb"));
+        //the 4 states of the classical automaton, plus the dead state reached on any other character
+        assertEquals(5, dfa.size());
+        assertEquals(3, dfa.columns());
+        assertTrue(dfa.matches("aababb"));
+        assertFalse(dfa.matches("aababba"));
+        assertFalse(dfa.matches("abbc"));
+    }
+
+    @Test
+    public void testDeadState() {
+        LRegExpDFA dfa = LRegExpDFA.compile(reader.readExpression("ab"));
+        int state = dfa.next(dfa.initial(), 'b');
+        assertTrue(dfa.isDead(state));
+        assertEquals(state, dfa.next(state, 'a'));
+        assertFalse(dfa.isDead(dfa.next(dfa.initial(), 'a')));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMaxStates() {
+        LRegExpDFA.compile(reader.readExpression("abcdef"), 3);
+    }
+
+    @Test
+    public void testAgreesWithJavaRegex() {
+        String[] patterns = {"∅", "ε", "(a|b)*abb", "(ab|a)*b", "a*(b|ε)a*", "((a*)*b)*", "(a|ab)(c|bcd)", "(a.b)*|c*"};
+        Random random = new Random(11);
+        for (String pattern : patterns) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            LRegExpDFA dfa = LRegExpDFA.compile(expression);
+            Pattern oracle = toJavaPattern(pattern);
+            for (int i = 0; i < 300; i++) {
+                StringBuilder word = new StringBuilder();
+                int length = random.nextInt(10);
+                for (int j = 0; j < length; j++) {
+                    word.append("abcdx".charAt(random.nextInt(5)));
+                }
+                assertEquals(pattern + " on " + word, oracle.matcher(word).matches(), dfa.matches(word));
+            }
+        }
+    }
+}
@@ -31,7 +31,7 @@ import static org.junit.Assert.assertEquals;
 
 public class DerivativeTest {
     LRegExpCharReader reader = new LRegExpCharReader();
-    LRegExpDerivative<Character> derivator = new LRegExpDerivative<>();
+    LRegExpDerivative<Character> derivator = new LRegExpDerivative<>(LRegExpFactory.shared());
     @Test
     public void testEmpty() {
         LRegExp.Expression<Character> expression = reader.readExpression("∅");
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.diagnosis.LRegExpAtomicPropositionEvaluator;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.runtime.LRegExpAction;
+import obp2.language.lregexp.runtime.LRegExpConfiguration;
+import obp2.language.lregexp.runtime.LRegExpTransitionRelation;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EvaluatorTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    LRegExpAction action(LRegExpTransitionRelation<Character> relation, LRegExpConfiguration source, char c) {
+        for (LRegExpAction action : relation.fireableTransitionsFrom(source)) {
+            if (Character.valueOf(c).equals(action.symbol())) return action;
+        }
+        throw new AssertionError(c);
+    }
+
+    @Test
+    public void testStatePropositions() {
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", reader.readExpression("ab*"));
+        LRegExpAtomicPropositionEvaluator<Character> evaluator = new LRegExpAtomicPropositionEvaluator<>(relation);
+        evaluator.registerAtomicPropositions(new String[]{"accepting", "dead", "nullable", "'a", "'b", "a"});
+
+        LRegExpConfiguration initial = relation.initialConfigurations().iterator().next();
+        boolean[] valuations = new boolean[6];
+        evaluator.getAtomicPropositionValuations(initial, valuations);
+        assertEquals(Arrays.toString(new boolean[]{false, false, false, true, false, false}), Arrays.toString(valuations));
+
+        LRegExpAction a = action(relation, initial, 'a');
+        LRegExpConfiguration afterA = relation.fireOneTransition(initial, a).getTarget();
+        evaluator.getAtomicPropositionValuations(afterA, valuations);
+        assertEquals(Arrays.toString(new boolean[]{true, false, true, false, true, false}), Arrays.toString(valuations));
+
+        //the state propositions hold on the target, the token ones on the action
+        evaluator.getAtomicPropositionValuations(initial, a, afterA, valuations);
+        assertEquals(Arrays.toString(new boolean[]{true, false, true, false, true, true}), Arrays.toString(valuations));
+
+        LRegExpConfiguration dead = relation.fireOneTransition(afterA, action(relation, afterA, 'a')).getTarget();
+        assertEquals(Arrays.toString(new boolean[]{false, true, false, false, false, false}), Arrays.toString(evaluator.getAtomicPropositionValuations(dead)));
+    }
+
+    @Test
+    public void testManyStates() {
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            pattern.append('a');
+        }
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", reader.readExpression(pattern.toString()));
+        LRegExpAtomicPropositionEvaluator<Character> evaluator = new LRegExpAtomicPropositionEvaluator<>(relation);
+        evaluator.registerAtomicPropositions(new String[]{"accepting"});
+        LRegExpConfiguration configuration = relation.initialConfigurations().iterator().next();
+        boolean[] valuation = new boolean[1];
+        for (int i = 0; i < 200; i++) {
+            evaluator.getAtomicPropositionValuations(configuration, valuation);
+            assertFalse(valuation[0]);
+            configuration = relation.fireOneTransition(configuration, action(relation, configuration, 'a')).getTarget();
+        }
+        evaluator.getAtomicPropositionValuations(configuration, valuation);
+        assertTrue(valuation[0]);
+    }
+
+    @Test
+    public void testTokenOutsideTheProgram() {
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", reader.readExpression("ab*"));
+        LRegExpAtomicPropositionEvaluator<Character> evaluator = new LRegExpAtomicPropositionEvaluator<>(relation);
+        evaluator.registerAtomicPropositions(new String[]{"z", "'z", "a"});
+
+        LRegExpConfiguration initial = relation.initialConfigurations().iterator().next();
+        for (LRegExpAction action : relation.fireableTransitionsFrom(initial)) {
+            LRegExpConfiguration target = relation.fireOneTransition(initial, action).getTarget();
+            boolean[] valuations = evaluator.getAtomicPropositionValuations(initial, action, null, target);
+            //z is read by the class of the other symbols, but it is not the only one
+            assertFalse(action.toString(), valuations[0]);
+            assertFalse(action.toString(), valuations[1]);
+            assertEquals(action.toString(), action.symbol() != null && action.symbol().equals('a'), valuations[2]);
+        }
+    }
+
+    @Test
+    public void testValuationsBufferIsReused() {
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", reader.readExpression("ab*"));
+        LRegExpAtomicPropositionEvaluator<Character> evaluator = new LRegExpAtomicPropositionEvaluator<>(relation);
+        evaluator.registerAtomicPropositions(new String[]{"accepting"});
+        LRegExpConfiguration initial = relation.initialConfigurations().iterator().next();
+        LRegExpConfiguration afterA = relation.fireOneTransition(initial, action(relation, initial, 'a')).getTarget();
+        boolean[] first = evaluator.getAtomicPropositionValuations(initial);
+        assertFalse(first[0]);
+        assertSame(first, evaluator.getAtomicPropositionValuations(afterA));
+        assertTrue(first[0]);
+    }
+}
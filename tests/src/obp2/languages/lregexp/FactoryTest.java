@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class FactoryTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testTerminalsAreShared() {
+        LRegExpFactory<Character> factory = new LRegExpFactory<>();
+        assertSame(factory.empty(), factory.intern(new LRegExp.Empty<>()));
+        assertSame(factory.epsilon(), factory.intern(new LRegExp.Epsilon<>()));
+        assertSame(factory.token('a'), factory.token('a'));
+    }
+
+    @Test
+    public void testComposites() {
+        LRegExpFactory<Character> factory = new LRegExpFactory<>();
+        LRegExp.Expression<Character> a = factory.token('a');
+        LRegExp.Expression<Character> b = factory.token('b');
+        assertSame(factory.union(a, b), factory.union(a, b));
+        assertSame(factory.concatenation(a, b), factory.concatenation(a, b));
+        assertSame(factory.kleeneStar(a), factory.kleeneStar(a));
+        assertNotSame(factory.union(a, b), factory.concatenation(a, b));
+        assertNotSame(factory.union(a, b), factory.union(b, a));
+    }
+
+    @Test
+    public void testIntern() {
+        LRegExpFactory<Character> factory = new LRegExpFactory<>();
+        LRegExp.Expression<Character> expression = reader.readExpression("(a|bc)*b");
+        LRegExp.Expression<Character> interned = factory.intern(expression);
+        assertEquals(expression, interned);
+        assertTrue(factory.isCanonical(interned));
+        assertFalse(factory.isCanonical(reader.readExpression("(a|bc)*b")));
+        assertSame(interned, factory.intern(reader.readExpression("(a|bc)*b")));
+        assertSame(interned, factory.intern(interned));
+    }
+
+    @Test
+    public void testDerivativesAreShared() {
+        LRegExpFactory<Character> factory = new LRegExpFactory<>();
+        LRegExpDerivative<Character> derivator = new LRegExpDerivative<>(factory);
+        LRegExp.Expression<Character> expression = factory.intern(reader.readExpression("(ab)*"));
+        LRegExp.Expression<Character> first = expression.accept(derivator, 'a');
+        LRegExp.Expression<Character> second = expression.accept(derivator, 'a');
+        assertSame(first, second);
+        assertTrue(factory.isCanonical(first));
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        LRegExpFactory<Character> factory = new LRegExpFactory<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<LRegExp.Expression<Character>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> factory.intern(reader().readExpression("(a|b)*abb"))));
+            }
+            LRegExp.Expression<Character> expected = results.get(0).get();
+            for (Future<LRegExp.Expression<Character>> result : results) {
+                assertSame(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    LRegExpCharReader reader() {
+        return new LRegExpCharReader();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpFileMatcher;
+import obp2.language.lregexp.automata.LRegExpMatcher;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class FileMatcherTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    //records the decoded characters
+    static class Recorder implements ICharMatcher {
+        StringBuilder text = new StringBuilder();
+
+        @Override
+        public Status feed(char[] chunk, int offset, int length) {
+            text.append(chunk, offset, length);
+            return Status.REJECT;
+        }
+
+        @Override
+        public Status feed(CharSequence chunk) {
+            text.append(chunk);
+            return Status.REJECT;
+        }
+
+        @Override
+        public Status status() {
+            return Status.REJECT;
+        }
+
+        @Override
+        public void reset() {
+            text.setLength(0);
+        }
+    }
+
+    Path write(String content) throws IOException {
+        Path file = Files.createTempFile("lregexp", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testDecodingAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("ab").append("é中").append(i).append("😀");
+        }
+        Path file = write(content.toString());
+        for (long window : new long[]{4, 5, 7, 64, 1 << 20}) {
+            Recorder recorder = new Recorder();
+            new LRegExpFileMatcher(window, 3).match(file, recorder);
+            assertEquals("window " + window, content.toString(), recorder.text.toString());
+        }
+    }
+
+    @Test
+    public void testMatches() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append("ab");
+        }
+        Path file = write(content.toString());
+        assertTrue(new LRegExpFileMatcher(1000, 64).matches(file, reader.readExpression("(a.b)*")));
+        assertFalse(new LRegExpFileMatcher().matches(file, reader.readExpression("(a.b)*c")));
+        assertTrue(new LRegExpFileMatcher().matches(write(""), reader.readExpression("a*")));
+    }
+
+    @Test
+    public void testStopsWhenDead() throws IOException {
+        Path file = write("bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb");
+        assertEquals(ICharMatcher.Status.DEAD,
+                new LRegExpFileMatcher(4, 2).match(file, LRegExpMatcher.of(reader.readExpression("a*"))));
+    }
+}
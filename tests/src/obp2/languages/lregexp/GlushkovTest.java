@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpGlushkov;
+import obp2.language.lregexp.automata.LRegExpShiftAndMatcher;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GlushkovTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testPositions() {
+        assertEquals(5, LRegExpGlushkov.compile(reader.readExpression("(a|b)*abb")).positions());
+    }
+
+    @Test
+    public void testAgreesWithDerivatives() {
+        MatcherOracle.assertAgreesOnPatterns(expression -> LRegExpGlushkov.compile(expression).matcher(), 23);
+    }
+
+    @Test
+    public void testWide() {
+        //100 positions, over both words
+        StringBuilder pattern = new StringBuilder("(a|b)*");
+        for (int i = 0; i < 49; i++) {
+            pattern.append(i % 7 == 0 ? "(a|b)" : "(a|b*)");
+        }
+        LRegExp.Expression<Character> expression = reader.readExpression(pattern.toString());
+        assertTrue(LRegExpGlushkov.compile(expression).positions() > 64);
+        MatcherOracle.assertAgrees(expression, LRegExpGlushkov.compile(expression).matcher(), "abc", new Random(5));
+
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            input.append("ab".charAt(i % 3 % 2));
+        }
+        assertTrue(LRegExpGlushkov.compile(expression).matcher().matches(input));
+    }
+
+    @Test
+    public void testEmptyFactors() {
+        LRegExpFactory<Character> factory = LRegExpFactory.shared();
+        LRegExp.Expression<Character> expression = factory.union(
+                factory.concatenation(factory.token('a'), factory.empty()),
+                factory.concatenation(factory.token('a'), factory.kleeneStar(factory.empty())));
+        LRegExpShiftAndMatcher matcher = LRegExpGlushkov.compile(expression).matcher();
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed("a"));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("a"));
+
+        matcher = LRegExpGlushkov.compile(factory.empty()).matcher();
+        assertEquals(ICharMatcher.Status.DEAD, matcher.status());
+        matcher = LRegExpGlushkov.compile(factory.epsilon()).matcher();
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.status());
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTooManyPositions() {
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i <= LRegExpGlushkov.MAX_POSITIONS; i++) {
+            pattern.append('a');
+        }
+        LRegExpGlushkov.compile(reader.readExpression(pattern.toString()));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpCodePointMatcher;
+import obp2.language.lregexp.automata.LRegExpIntTerms;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.model.LRegExpFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntTermsTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testHashConsing() {
+        LRegExpIntTerms terms = LRegExpIntTerms.of(reader.readExpression("(a|b)*"));
+        int a = terms.token('a');
+        int b = terms.token('b');
+        assertEquals(a, terms.token('a'));
+        assertEquals(terms.union(a, b), terms.union(b, a));
+        assertEquals(terms.union(a, terms.union(b, a)), terms.union(b, a));
+        assertEquals(terms.star(terms.union(a, b)), terms.intern(reader.readExpression("(b|a)*")));
+        assertEquals(LRegExpIntTerms.EMPTY, terms.concatenation(a, LRegExpIntTerms.EMPTY));
+        assertEquals(a, terms.concatenation(LRegExpIntTerms.EPSILON, a));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutsideAlphabet() {
+        LRegExpIntTerms.of(reader.readExpression("a")).token('b');
+    }
+
+    @Test
+    public void testAgreesWithDerivatives() {
+        MatcherOracle.assertAgreesOnPatterns(LRegExpCodePointMatcher::of, 12);
+    }
+
+    @Test
+    public void testNonLatin1Tokens() {
+        LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+        //the characters are above the Character cache, so each valueOf returns a distinct box: tokens must compare by value
+        LRegExp.Expression<Character> expression = factory.kleeneStar(
+                factory.union(factory.token(Character.valueOf('é')), factory.token(Character.valueOf('中'))));
+        assertTrue(LRegExpCodePointMatcher.of(expression).matches("é中中é"));
+        assertFalse(LRegExpCodePointMatcher.of(expression).matches("éx"));
+
+        LRegExpDerivative<Character> derivative = new LRegExpDerivative<>();
+        LRegExp.Expression<Character> target = expression.accept(derivative, Character.valueOf('中'));
+        assertTrue(target.isNullable());
+    }
+
+    @Test
+    public void testSurrogatePairs() {
+        LRegExpFactory<Integer> factory = LRegExpFactory.simplifying();
+        int clef = 0x1D11E;
+        LRegExp.Expression<Integer> expression = factory.concatenation(
+                factory.kleeneStar(factory.token(clef)), factory.token((int) 'a'));
+        LRegExpCodePointMatcher matcher = LRegExpCodePointMatcher.ofCodePoints(expression);
+        String clefs = new String(Character.toChars(clef)) + new String(Character.toChars(clef));
+        assertTrue(matcher.matches(clefs + "a"));
+
+        matcher.reset();
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed(clefs.substring(0, 3)));
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed(clefs.substring(3)));
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed("a"));
+
+        matcher.reset();
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed(clefs.substring(0, 1) + "a"));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpLazyDFA;
+import obp2.language.lregexp.model.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LazyDFATest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    boolean matches(LRegExpLazyDFA<Character> dfa, String word) {
+        int state = dfa.initial();
+        for (char c : word.toCharArray()) {
+            state = dfa.next(state, c);
+        }
+        return dfa.isAccepting(state);
+    }
+
+    boolean matchesByDerivatives(LRegExp.Expression<Character> expression, String word) {
+        LRegExpDerivative<Character> derivator = new LRegExpDerivative<>(LRegExpFactory.shared());
+        for (char c : word.toCharArray()) {
+            expression = expression.accept(derivator, c);
+        }
+        return expression.accept(new LRegExpBooleanNullability<>(), null);
+    }
+
+    @Test
+    public void testMatches() {
+        LRegExpLazyDFA<Character> dfa = new LRegExpLazyDFA<>(reader.readExpression("(a|b)*abb"));
+        assertTrue(matches(dfa, "abb"));
+        assertTrue(matches(dfa, "babaabb"));
+        assertFalse(matches(dfa, "abba"));
+        assertFalse(matches(dfa, ""));
+    }
+
+    @Test
+    public void testStatesAreFinite() {
+        LRegExpLazyDFA<Character> dfa = new LRegExpLazyDFA<>(reader.readExpression("(a|b)*abb"));
+        Random random = new Random(42);
+        int state = dfa.initial();
+        for (int i = 0; i < 100_000; i++) {
+            state = dfa.next(state, random.nextBoolean() ? 'a' : 'b');
+        }
+        assertEquals(4, dfa.size());
+    }
+
+    @Test
+    public void testTransitionsAreMemoized() {
+        LRegExpLazyDFA<Character> dfa = new LRegExpLazyDFA<>(reader.readExpression("ab"));
+        int first = dfa.next(dfa.initial(), 'a');
+        assertEquals(first, dfa.next(dfa.initial(), 'a'));
+        assertEquals(first, dfa.stateOf(dfa.expression(first)));
+        assertTrue(dfa.isDead(dfa.next(dfa.initial(), 'b')));
+        assertTrue(dfa.isAccepting(dfa.next(first, 'b')));
+    }
+
+    @Test
+    public void testAgreesWithDerivatives() {
+        String[] patterns = {"(a|b)*abb", "(ab|a)*b", "a*(b|ε)a*", "((a*)*b)*", "(a|ab)(c|bcd)"};
+        Random random = new Random(7);
+        for (String pattern : patterns) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            LRegExpLazyDFA<Character> dfa = new LRegExpLazyDFA<>(expression);
+            for (int i = 0; i < 200; i++) {
+                StringBuilder word = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int j = 0; j < length; j++) {
+                    word.append("abcd".charAt(random.nextInt(4)));
+                }
+                assertEquals(pattern + " on " + word,
+                        matchesByDerivatives(expression, word.toString()),
+                        matches(dfa, word.toString()));
+            }
+        }
+    }
+}
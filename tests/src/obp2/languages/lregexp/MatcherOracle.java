@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpMatcher;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The oracle of the matcher tests: the statuses of the lazy DFA of the derivatives, on random inputs.
+ */
+final class MatcherOracle {
+    static final String[] PATTERNS = {"(a|b)*abb", "((ab)|(ba))*", "a*b*c*", "(a*)*b", "((a|b).c)*|a", "(a|ab)(c|bcd)(d*)", "a**", nthFromEnd(3)};
+    static final String ALPHABET = "abcd";
+
+    private MatcherOracle() {
+    }
+
+    //the n-th character from the end is an a: 2^n derivative states, n + 2 partial derivatives
+    static String nthFromEnd(int n) {
+        StringBuilder pattern = new StringBuilder("(a|b)*a");
+        for (int i = 0; i < n; i++) {
+            pattern.append("(a|b)");
+        }
+        return pattern.toString();
+    }
+
+    static String randomInput(Random random, String alphabet, int maxLength) {
+        StringBuilder input = new StringBuilder();
+        for (int j = random.nextInt(maxLength); j > 0; j--) {
+            input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return input.toString();
+    }
+
+    static void assertAgrees(LRegExp.Expression<Character> expression, ICharMatcher matcher, String alphabet, Random random) {
+        LRegExpMatcher oracle = LRegExpMatcher.of(expression);
+        for (int i = 0; i < 200; i++) {
+            String input = randomInput(random, alphabet, 16);
+            matcher.reset();
+            oracle.reset();
+            assertEquals(expression + " on " + input, oracle.feed(input), matcher.feed(input));
+        }
+    }
+
+    /**
+     * Checks the matchers built by the engine against the derivatives, on each of the {@link #PATTERNS}.
+     */
+    static void assertAgreesOnPatterns(Function<LRegExp.Expression<Character>, ICharMatcher> engine, long seed) {
+        LRegExpCharReader reader = new LRegExpCharReader();
+        Random random = new Random(seed);
+        for (String pattern : PATTERNS) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            assertAgrees(expression, engine.apply(expression), ALPHABET, random);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.ICharMatcher;
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.automata.LRegExpMatcher;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+
+import static org.junit.Assert.*;
+
+public class MatcherTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testChunks() {
+        LRegExpMatcher matcher = LRegExpMatcher.of(reader.readExpression("(ab)*c"));
+        assertEquals(ICharMatcher.Status.REJECT, matcher.status());
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed("aba"));
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed(new char[]{'b', 'a', 'b'}));
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(CharBuffer.wrap("c")));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("c"));
+        assertEquals(ICharMatcher.Status.DEAD, matcher.feed("abc"));
+        matcher.reset();
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed("c"));
+    }
+
+    @Test
+    public void testCharBuffer() {
+        LRegExpMatcher matcher = LRegExpMatcher.of(reader.readExpression("a*b"));
+        CharBuffer heap = CharBuffer.wrap("xaab".toCharArray(), 1, 3);
+        assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(heap));
+        assertFalse(heap.hasRemaining());
+
+        matcher.reset();
+        CharBuffer view = CharBuffer.wrap("aaa");
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed(view));
+        assertFalse(view.hasRemaining());
+    }
+
+    @Test
+    public void testLongStream() {
+        LRegExpMatcher matcher = LRegExpMatcher.of(reader.readExpression("((ab)|(ba))*"));
+        char[] chunk = "abbaab".toCharArray();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(ICharMatcher.Status.ACCEPT, matcher.feed(chunk, 0, chunk.length));
+        }
+        assertEquals(ICharMatcher.Status.REJECT, matcher.feed(chunk, 0, 1));
+    }
+
+    @Test
+    public void testCompiledDFA() {
+        LRegExp.Expression<Character> expression = reader.readExpression("(a|b)*abb");
+        ICharMatcher lazy = LRegExpMatcher.of(expression);
+        ICharMatcher compiled = new LRegExpMatcher(LRegExpDFA.compile(expression));
+        for (String input : new String[]{"", "abb", "aabb", "abba", "abbc", "babb"}) {
+            assertEquals(input, lazy.matches(input), compiled.matches(input));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpBooleanNullability;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetadataTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testNullability() {
+        String[] patterns = {"∅", "ε", "a", "a|b", "a|ε", "ab", "εε", "a*", "a*b", "a*b*", "(ab|ε)(c*|d)"};
+        for (String pattern : patterns) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            assertEquals(pattern,
+                    expression.accept(new LRegExpBooleanNullability<>(), null),
+                    expression.isNullable());
+        }
+    }
+
+    @Test
+    public void testSizeAndHeight() {
+        LRegExp.Expression<Character> expression = reader.readExpression("a");
+        assertEquals(1, expression.size());
+        assertEquals(1, expression.height());
+
+        expression = reader.readExpression("(a|b)*c");
+        assertEquals(6, expression.size());
+        assertEquals(4, expression.height());
+    }
+
+    @Test
+    public void testHash() {
+        assertEquals(reader.readExpression("(a|b)*c").hashCode(), reader.readExpression("(a|b)*c").hashCode());
+        assertEquals(new LRegExp.Empty<>().hashCode(), new LRegExp.Empty<>().hashCode());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testOperandsAreReadOnly() {
+        LRegExp.Composite<Character> expression = (LRegExp.Composite<Character>) reader.readExpression("ab");
+        expression.operands.set(0, new LRegExp.Empty<>());
+    }
+}
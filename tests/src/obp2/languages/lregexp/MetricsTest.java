@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpLazyDFA;
+import obp2.language.lregexp.model.ILRegExpMetricsListener;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpHistogram;
+import obp2.language.lregexp.model.LRegExpMetrics;
+import obp2.language.lregexp.runtime.LRegExpStateTable;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testHistogram() {
+        LRegExpHistogram histogram = new LRegExpHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.count());
+        assertEquals(5050, histogram.sum());
+        assertEquals(100, histogram.max());
+        assertEquals(50.5, histogram.mean(), 1e-9);
+        long median = histogram.percentile(50);
+        assertTrue(median >= 50 && median <= 100);
+        histogram.reset();
+        assertEquals(0, histogram.count());
+    }
+
+    @Test
+    public void testListenerReentersTable() {
+        LRegExpStateTable<Character> table = new LRegExpStateTable<>();
+        ILRegExpMetricsListener listener = new ILRegExpMetricsListener() {
+            @Override
+            public void onStep(LRegExp.Expression<?> source, Object token, LRegExp.Expression<?> target, long nanos, long nodes) {
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public void onState(LRegExp.Expression<?> state, long count) {
+                //the hook runs outside the lock of the table
+                table.idOf((LRegExp.Expression<Character>) state);
+            }
+        };
+        LRegExpMetrics.addListener(listener);
+        try {
+            assertEquals(0, table.idOf(reader.readExpression("ab")));
+            assertEquals(1, table.idOf(reader.readExpression("b")));
+            assertEquals(2, table.size());
+        } finally {
+            LRegExpMetrics.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void testHooksAndListener() {
+        AtomicInteger steps = new AtomicInteger();
+        AtomicInteger states = new AtomicInteger();
+        ILRegExpMetricsListener listener = new ILRegExpMetricsListener() {
+            @Override
+            public void onStep(LRegExp.Expression<?> source, Object token, LRegExp.Expression<?> target, long nanos, long nodes) {
+                steps.incrementAndGet();
+            }
+
+            @Override
+            public void onState(LRegExp.Expression<?> state, long count) {
+                states.incrementAndGet();
+            }
+        };
+        LRegExpMetrics.addListener(listener);
+        try {
+            long before = LRegExpMetrics.INSTANCE.getSteps();
+            LRegExp.Expression<Character> expression = reader.readExpression("ab*");
+            LRegExpMetrics.step(expression, 'a', expression, LRegExpMetrics.start(), LRegExpMetrics.nodes());
+            LRegExpMetrics.state(expression);
+            assertTrue(LRegExpMetrics.INSTANCE.getSteps() > before);
+            assertEquals(1, steps.get());
+            assertEquals(1, states.get());
+
+            if (LRegExpMetrics.ENABLED) {
+                //the engines call the hooks
+                LRegExpLazyDFA<Character> dfa = new LRegExpLazyDFA<>(reader.readExpression("(a|b)*abb"));
+                int state = dfa.initial();
+                for (char c : "abbabb".toCharArray()) {
+                    state = dfa.next(state, c);
+                }
+                assertTrue(steps.get() > 1);
+                assertTrue(states.get() > 1);
+                assertTrue(LRegExpMetrics.INSTANCE.getCacheHits() > 0);
+            }
+        } finally {
+            LRegExpMetrics.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        LRegExpMetrics.registerMBean();
+        LRegExpMetrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LRegExpMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(LRegExpMetrics.ENABLED, server.getAttribute(name, "Enabled"));
+        assertTrue((Long) server.getAttribute(name, "Steps") >= 0);
+    }
+}
@@ -26,6 +26,7 @@ package obp2.languages.lregexp;
 
 import obp2.language.lregexp.model.LRegExp;
 import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
 import obp2.language.lregexp.model.LRegExpNullability;
 import org.junit.Test;
 
@@ -34,7 +35,7 @@ import static org.junit.Assert.assertEquals;
 public class NullabilityTest {
 
     LRegExpCharReader reader = new LRegExpCharReader();
-    LRegExpNullability<Character> nullability = new LRegExpNullability<>();
+    LRegExpNullability<Character> nullability = new LRegExpNullability<>(LRegExpFactory.shared());
     @Test
     public void testEmpty() {
         LRegExp.Expression<Character> expression = reader.readExpression("∅");
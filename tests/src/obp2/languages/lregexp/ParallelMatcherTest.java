@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.automata.LRegExpParallelMatcher;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelMatcherTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testAgreesWithSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(3);
+            for (String pattern : new String[]{"(a|b)*abb", "((ab)|(ba))*", "(a|b|c)*c(a|b)", "a*"}) {
+                LRegExpDFA dfa = LRegExpDFA.compile(reader.readExpression(pattern));
+                LRegExpParallelMatcher parallel = new LRegExpParallelMatcher(dfa, pool, 7);
+                for (int i = 0; i < 200; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(400);
+                    for (int j = 0; j < length; j++) {
+                        input.append("abc".charAt(random.nextInt(pattern.equals("a*") ? 1 : 3)));
+                    }
+                    assertEquals(pattern + " on " + input, dfa.matches(input), parallel.matches(input));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testLargeInput() {
+        LRegExpDFA dfa = LRegExpDFA.compile(reader.readExpression("(a|b)*abb"));
+        StringBuilder input = new StringBuilder();
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000_000; i++) {
+            input.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        input.append("abb");
+        LRegExpParallelMatcher parallel = new LRegExpParallelMatcher(dfa);
+        assertTrue(parallel.matches(input));
+        input.append('a');
+        assertFalse(parallel.matches(input));
+    }
+}
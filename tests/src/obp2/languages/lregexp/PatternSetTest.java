@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpCharPatternSet;
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.automata.LRegExpPatternSet;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PatternSetTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    List<LRegExp.Expression<Character>> read(String... patterns) {
+        List<LRegExp.Expression<Character>> expressions = new ArrayList<>();
+        for (String pattern : patterns) {
+            expressions.add(reader.readExpression(pattern));
+        }
+        return expressions;
+    }
+
+    @Test
+    public void testMatch() {
+        LRegExpCharPatternSet set = new LRegExpCharPatternSet(read("a*", "(a|b)*abb", "ab.b", "c"));
+        assertEquals(BitSet.valueOf(new long[]{0b0110}), set.match("abb"));
+        assertEquals(BitSet.valueOf(new long[]{0b0001}), set.match("aaa"));
+        assertEquals(BitSet.valueOf(new long[]{0b0001}), set.match(""));
+        assertEquals(BitSet.valueOf(new long[]{0b1000}), set.match("c"));
+        assertTrue(set.match("abbc").isEmpty());
+    }
+
+    @Test
+    public void testAgreesWithEachPattern() {
+        String[] patterns = {"(a|b)*abb", "((ab)|(ba))*", "a*b*", "(a|c)*c", "ε", "∅", "b(a|b)"};
+        LRegExpCharPatternSet set = new LRegExpCharPatternSet(read(patterns));
+        List<LRegExpDFA> dfas = new ArrayList<>();
+        for (LRegExp.Expression<Character> expression : read(patterns)) {
+            dfas.add(LRegExpDFA.compile(expression));
+        }
+        Random random = new Random(13);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                input.append("abcd".charAt(random.nextInt(4)));
+            }
+            BitSet matching = set.match(input);
+            for (int pattern = 0; pattern < patterns.length; pattern++) {
+                assertEquals(patterns[pattern] + " on " + input, dfas.get(pattern).matches(input), matching.get(pattern));
+            }
+        }
+    }
+
+    @Test
+    public void testGenericAlphabet() {
+        LRegExpPatternSet<Character> set = new LRegExpPatternSet<>(read("ab", "a*"));
+        int state = set.next(set.initial(), 'a');
+        assertTrue(set.isAccepting(state, 1));
+        assertFalse(set.isAccepting(state, 0));
+        state = set.next(state, 'b');
+        assertTrue(set.isAccepting(state, 0));
+        assertFalse(set.isAccepting(state, 1));
+        assertTrue(set.isDead(set.next(state, 'x')));
+    }
+}
@@ -30,6 +30,7 @@ import obp2.language.lregexp.model.LRegExp;
 import obp2.language.lregexp.model.StringIterator;
 import org.junit.Test;
 
+import java.text.ParseException;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -195,4 +196,82 @@ public class ReaderTest {
                         new LRegExp.Epsilon<>());
         assertEquals(expected, expression);
     }
+
+    @Test
+    public void testPrecedence() {
+        LRegExpCharReader reader = new LRegExpCharReader();
+        LRegExp.Expression<Character> expected =
+                new LRegExp.Union<>(
+                        new LRegExp.Concatenation<>(
+                                new LRegExp.Token<>('a'),
+                                new LRegExp.KleeneStar<>(new LRegExp.Token<>('b'))),
+                        new LRegExp.Token<>('c'));
+        assertEquals(expected, reader.readExpression("ab*|c"));
+        assertEquals(expected, reader.readExpression("a.b*|c"));
+        assertEquals(expected, reader.readExpression("(a(b)*)|(c)"));
+    }
+
+    @Test
+    public void testErrorOffsets() {
+        LRegExpCharReader reader = new LRegExpCharReader();
+        String[] patterns = {"", "a|", "|a", "ab)", "(ab", "a(|b)", "a.*", "a.", "*a", "a.|b", "(a.)"};
+        int[] offsets = {0, 2, 0, 2, 0, 2, 2, 2, 0, 2, 3};
+        for (int i = 0; i < patterns.length; i++) {
+            try {
+                reader.parse(patterns[i]);
+                fail(patterns[i]);
+            } catch (ParseException e) {
+                assertEquals(patterns[i], offsets[i], e.getErrorOffset());
+            }
+            assertNull(reader.readExpression(patterns[i]));
+        }
+    }
+
+    @Test
+    public void testErrorMessages() {
+        LRegExpCharReader reader = new LRegExpCharReader();
+        String[] patterns = {"", "()", "a()", "(a|)", "a|", "|a", "ab)"};
+        String[] messages = {"empty expression", "empty expression", "empty expression", "unexpected ')'",
+                "missing operand after '|'", "missing operand before '|'", "unbalanced ')'"};
+        int[] offsets = {0, 1, 2, 3, 2, 0, 2};
+        for (int i = 0; i < patterns.length; i++) {
+            try {
+                reader.parse(patterns[i]);
+                fail(patterns[i]);
+            } catch (ParseException e) {
+                assertEquals(patterns[i], "LRegExp: " + messages[i], e.getMessage());
+                assertEquals(patterns[i], offsets[i], e.getErrorOffset());
+            }
+        }
+    }
+
+    @Test
+    public void testBalanced() {
+        LRegExpCharReader reader = new LRegExpCharReader();
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            if (i > 0) pattern.append('|');
+            pattern.append((char) ('a' + i % 26)).append((char) ('a' + i / 26 % 26)).append((char) ('a' + i / 676 % 26));
+        }
+        LRegExp.Expression<Character> expression = reader.readExpression(pattern.toString());
+        assertEquals(50_000 * 6 - 1, expression.size());
+        assertTrue(expression.height() <= 20);
+
+        //deep nesting does not overflow the stack
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) nested.append('(');
+        nested.append('a');
+        for (int i = 0; i < 100_000; i++) nested.append(')');
+        assertEquals(new LRegExp.Token<>('a'), reader.readExpression(nested.toString()));
+    }
+
+    @Test
+    public void testIterator() throws ParseException {
+        LRegExpCharReader reader = new LRegExpCharReader();
+        StringIterator iterator = new StringIterator("a|b");
+        iterator.advance();
+        iterator.advance();
+        assertEquals(new LRegExp.Token<>('b'), reader.parse(iterator));
+        assertFalse(iterator.hasNext());
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.automata.LRegExpSearcher;
+import obp2.language.lregexp.automata.LRegExpSearcher.Span;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
+import obp2.language.lregexp.model.LRegExpReverse;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SearcherTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    //restarts the whole-input matcher at every offset, for every end
+    List<Span> bruteForce(LRegExpDFA dfa, String text) {
+        List<Span> matches = new ArrayList<>();
+        int from = 0;
+        while (from <= text.length()) {
+            Span match = null;
+            for (int start = from; start <= text.length() && match == null; start++) {
+                for (int end = text.length(); end >= start; end--) {
+                    if (dfa.matches(text.substring(start, end))) {
+                        match = new Span(start, end);
+                        break;
+                    }
+                }
+            }
+            if (match == null) break;
+            matches.add(match);
+            from = match.end > match.start ? match.end : match.end + 1;
+        }
+        return matches;
+    }
+
+    @Test
+    public void testReverse() {
+        LRegExpFactory<Character> factory = LRegExpFactory.simplifying();
+        LRegExpReverse<Character> reverse = new LRegExpReverse<>(factory);
+        LRegExp.Expression<Character> expression = factory.intern(reader.readExpression("ab*(c|de)"));
+        LRegExpDFA reversed = LRegExpDFA.compile(reverse.reverse(expression));
+        assertTrue(reversed.matches("edbba"));
+        assertTrue(reversed.matches("ca"));
+        assertFalse(reversed.matches("abde"));
+        assertEquals(expression, reverse.reverse(reverse.reverse(expression)));
+    }
+
+    @Test
+    public void testLeftmostLongest() {
+        LRegExpSearcher searcher = new LRegExpSearcher(reader.readExpression("abcd|c"));
+        //c ends first, but abcd starts first
+        assertEquals(new Span(0, 4), searcher.find("abcd"));
+        assertEquals(new Span(2, 3), searcher.find("abcd", 1));
+        assertEquals(Arrays.asList(new Span(1, 5), new Span(6, 7)), searcher.findAll("xabcdxc"));
+        assertNull(searcher.find("xyz"));
+        assertTrue(searcher.findAll("xyz").isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFromOutOfBounds() {
+        new LRegExpSearcher(reader.readExpression("a*")).find("ab", 5);
+    }
+
+    @Test
+    public void testEmptyMatches() {
+        LRegExpSearcher searcher = new LRegExpSearcher(reader.readExpression("a*"));
+        assertEquals(Arrays.asList(new Span(0, 0), new Span(1, 4), new Span(4, 4), new Span(5, 5)), searcher.findAll("baaac"));
+    }
+
+    @Test
+    public void testAgreesWithBruteForce() {
+        String[] patterns = {"(a|b)*abb", "ab|ba", "a*b*c", "(a*)*b", "((a|b).c)*|a", "(a|ab)(c|bcd)(d*)", "a*", "(a*b)|a", "bb*"};
+        Random random = new Random(26);
+        for (String pattern : patterns) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            LRegExpDFA dfa = LRegExpDFA.compile(expression);
+            LRegExpSearcher searcher = new LRegExpSearcher(expression);
+            for (int i = 0; i < 200; i++) {
+                StringBuilder text = new StringBuilder();
+                for (int j = random.nextInt(20); j > 0; j--) {
+                    text.append("abcdx".charAt(random.nextInt(5)));
+                }
+                List<Span> expected = bruteForce(dfa, text.toString());
+                assertEquals(pattern + " in " + text, expected, searcher.findAll(text));
+                assertEquals(pattern + " in " + text, expected.isEmpty() ? null : expected.get(0), searcher.find(text));
+            }
+        }
+    }
+
+    @Test
+    public void testLongText() {
+        LRegExpSearcher searcher = new LRegExpSearcher(reader.readExpression("(ab|ba)(ab|ba)*c"));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            text.append(i % 1000 == 999 ? "abc" : "xa");
+        }
+        List<Span> matches = searcher.findAll(text);
+        assertEquals(100, matches.size());
+        assertEquals(new Span(1998, 2001), matches.get(0));
+    }
+}
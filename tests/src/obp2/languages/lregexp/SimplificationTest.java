@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.model.*;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SimplificationTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+    LRegExpFactory<Character> factory = new LRegExpSimplifyingFactory<>();
+    LRegExpDerivative<Character> derivator = new LRegExpDerivative<>(factory);
+    LRegExpNullability<Character> nullability = new LRegExpNullability<>(factory);
+
+    LRegExp.Expression<Character> read(String string) {
+        return factory.intern(reader.readExpression(string));
+    }
+
+    @Test
+    public void testRules() {
+        LRegExp.Expression<Character> a = factory.token('a');
+        assertSame(factory.empty(), factory.concatenation(factory.empty(), a));
+        assertSame(factory.empty(), factory.concatenation(a, factory.empty()));
+        assertSame(a, factory.concatenation(factory.epsilon(), a));
+        assertSame(a, factory.concatenation(a, factory.epsilon()));
+        assertSame(a, factory.union(factory.empty(), a));
+        assertSame(a, factory.union(a, factory.empty()));
+        assertSame(a, factory.union(a, a));
+        assertSame(factory.kleeneStar(a), factory.kleeneStar(factory.kleeneStar(a)));
+        assertSame(factory.epsilon(), factory.kleeneStar(factory.empty()));
+        assertSame(factory.epsilon(), factory.kleeneStar(factory.epsilon()));
+    }
+
+    @Test
+    public void testUnionNormalization() {
+        LRegExp.Expression<Character> a = factory.token('a');
+        LRegExp.Expression<Character> b = factory.token('b');
+        LRegExp.Expression<Character> c = factory.token('c');
+        assertSame(factory.union(a, b), factory.union(b, a));
+        assertSame(factory.union(a, factory.union(b, c)), factory.union(factory.union(c, a), b));
+        assertSame(factory.union(a, b), factory.union(factory.union(a, b), factory.union(b, a)));
+    }
+
+    @Test
+    public void testUnionNormalizationUnderHashCollisions() {
+        LRegExpFactory<Colliding> factory = new LRegExpSimplifyingFactory<>();
+        LRegExp.Expression<Colliding> a = factory.token(new Colliding("a"));
+        LRegExp.Expression<Colliding> b = factory.token(new Colliding("b"));
+        LRegExp.Expression<Colliding> c = factory.kleeneStar(a);
+        LRegExp.Expression<Colliding> d = factory.kleeneStar(b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(c.hashCode(), d.hashCode());
+        assertSame(factory.union(a, b), factory.union(b, a));
+        assertSame(factory.union(c, d), factory.union(d, c));
+        assertSame(factory.union(a, factory.union(b, c)), factory.union(factory.union(c, a), b));
+    }
+
+    //a token whose hash collides with every other, so that only the structure can order the alternatives
+    static final class Colliding {
+        final String name;
+
+        Colliding(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Colliding && name.equals(((Colliding) obj).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testIntern() {
+        assertEquals(reader.readExpression("a"), read("(∅|a)ε"));
+        assertEquals(reader.readExpression("∅"), read("a∅b"));
+        assertEquals(reader.readExpression("a*"), read("(a*)*"));
+    }
+
+    @Test
+    public void testDerivative() {
+        LRegExp.Expression<Character> expression = read("ab");
+        assertEquals(reader.readExpression("∅"), expression.accept(derivator, 'c'));
+        assertEquals(reader.readExpression("b"), expression.accept(derivator, 'a'));
+        assertEquals(reader.readExpression("∅"), expression.accept(derivator, 'b'));
+
+        expression = read("a|b");
+        assertEquals(reader.readExpression("ε"), expression.accept(derivator, 'a'));
+        assertEquals(reader.readExpression("∅"), expression.accept(derivator, 'c'));
+
+        expression = read("a*");
+        assertEquals(reader.readExpression("a*"), expression.accept(derivator, 'a'));
+        assertEquals(reader.readExpression("∅"), expression.accept(derivator, 'c'));
+    }
+
+    @Test
+    public void testNullability() {
+        assertEquals(reader.readExpression("∅"), read("a|b").accept(nullability, null));
+        assertEquals(reader.readExpression("ε"), read("a|ε").accept(nullability, null));
+        assertEquals(reader.readExpression("∅"), read("εb").accept(nullability, null));
+        assertEquals(reader.readExpression("ε"), read("a*b*").accept(nullability, null));
+    }
+
+    @Test
+    public void testDerivativeDoesNotGrow() {
+        LRegExp.Expression<Character> start = read("(ab)*");
+        LRegExp.Expression<Character> expression = start;
+        for (int i = 0; i < 10_000; i++) {
+            expression = expression.accept(derivator, i % 2 == 0 ? 'a' : 'b');
+        }
+        assertSame(start, expression);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpDerivative;
+import obp2.language.lregexp.runtime.LRegExpConfiguration;
+import obp2.language.lregexp.runtime.LRegExpStateTable;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class StateTableTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @Test
+    public void testIds() {
+        LRegExpStateTable<Character> table = new LRegExpStateTable<>();
+        LRegExp.Expression<Character> expression = reader.readExpression("(a|b)*abb");
+        int initial = table.idOf(expression);
+        assertEquals(0, initial);
+        //structurally equal expressions share the id
+        assertEquals(initial, table.idOf(reader.readExpression("(a|b)*abb")));
+        int next = table.idOf(expression.accept(new LRegExpDerivative<>(), 'a'));
+        assertEquals(1, next);
+        assertEquals(2, table.size());
+        assertEquals(expression, table.expression(initial));
+    }
+
+    @Test
+    public void testConfigurations() {
+        LRegExpStateTable<Character> table = new LRegExpStateTable<>();
+        LRegExp.Expression<Character> expression = reader.readExpression("a*b");
+        LRegExpConfiguration<Character> configuration = table.configuration(expression);
+        assertTrue(configuration.isCompact());
+        assertNull(configuration.expression);
+        assertEquals(expression, configuration.expression());
+
+        LRegExpConfiguration<Character> copy = configuration.createCopy();
+        assertEquals(configuration, copy);
+        assertEquals(configuration.hashCode(), copy.hashCode());
+        assertFalse(configuration.equals(table.configuration(reader.readExpression("b"))));
+        assertFalse(configuration.equals(new LRegExpConfiguration<>(expression)));
+        assertFalse(configuration.equals(new LRegExpStateTable<Character>().configuration(expression)));
+    }
+
+    @Test
+    public void testSerialization() {
+        LRegExpStateTable<Character> table = new LRegExpStateTable<>();
+        LRegExpConfiguration<Character> configuration = null;
+        for (int i = 0; i < 300; i++) {
+            LRegExp.Expression<Character> expression = reader.readExpression("a");
+            for (int j = 0; j < i; j++) {
+                expression = new LRegExp.Concatenation<>(new LRegExp.Token<>('a'), expression);
+            }
+            configuration = table.configuration(expression);
+        }
+        assertEquals(299, configuration.state());
+        byte[] bytes = table.serialize(configuration);
+        assertEquals(2, bytes.length);
+        assertEquals(configuration, table.deserialize(bytes));
+        assertEquals(1, table.serialize(table.configuration(reader.readExpression("a"))).length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        table.write(configuration, buffer);
+        table.write(table.configuration(reader.readExpression("a")), buffer);
+        buffer.flip();
+        assertEquals(configuration, table.read(buffer));
+        assertEquals(0, table.read(buffer).state());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownState() {
+        new LRegExpStateTable<Character>().deserialize(new byte[]{5});
+    }
+}
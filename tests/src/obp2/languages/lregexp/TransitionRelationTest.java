@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Ciprian Teodorov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package obp2.languages.lregexp;
+
+import obp2.core.IFiredTransition;
+import obp2.language.lregexp.automata.LRegExpDFA;
+import obp2.language.lregexp.model.LRegExp;
+import obp2.language.lregexp.model.LRegExpCharReader;
+import obp2.language.lregexp.model.LRegExpFactory;
+import obp2.language.lregexp.runtime.LRegExpAction;
+import obp2.language.lregexp.runtime.LRegExpConfiguration;
+import obp2.language.lregexp.runtime.LRegExpTransitionRelation;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransitionRelationTest {
+    LRegExpCharReader reader = new LRegExpCharReader();
+
+    @SuppressWarnings("unchecked")
+    static Set<LRegExpConfiguration> explore(LRegExpTransitionRelation<Character> relation) {
+        Set<LRegExpConfiguration> known = new HashSet<>(relation.initialConfigurations());
+        Deque<LRegExpConfiguration> frontier = new ArrayDeque<>(known);
+        while (!frontier.isEmpty()) {
+            LRegExpConfiguration source = frontier.pop();
+            for (LRegExpAction action : relation.fireableTransitionsFrom(source)) {
+                IFiredTransition<LRegExpConfiguration, LRegExpAction, Void> fired = relation.fireOneTransition(source, action);
+                if (known.add(fired.getTarget())) {
+                    frontier.push(fired.getTarget());
+                }
+            }
+        }
+        return known;
+    }
+
+    @Test
+    public void testStateGraph() {
+        String[] patterns = {"(a|b)*abb", "((ab)|(ba))*", "a*b*c*", "ab*|c"};
+        for (String pattern : patterns) {
+            LRegExp.Expression<Character> expression = reader.readExpression(pattern);
+            LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>(pattern, expression);
+            Set<LRegExpConfiguration> states = explore(relation);
+            assertEquals(pattern, LRegExpDFA.compile(expression).size(), states.size());
+        }
+    }
+
+    @Test
+    public void testInitialAndActions() {
+        LRegExp.Expression<Character> expression = reader.readExpression("ab*|c");
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", expression);
+        LRegExpConfiguration initial = relation.initialConfigurations().iterator().next();
+        //the derivatives are simplified, starting with the program
+        assertEquals(LRegExpFactory.<Character>simplifying().intern(expression), initial.expression());
+        Collection<LRegExpAction> actions = relation.fireableTransitionsFrom(initial);
+        //a, b, c and the other symbols
+        assertEquals(4, actions.size());
+    }
+
+    @Test
+    public void testMemoizedAndShared() {
+        LRegExp.Expression<Character> expression = reader.readExpression("(a|b)*abb");
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", expression);
+        Set<LRegExpConfiguration> states = explore(relation);
+        int known = relation.graph().table().size();
+        LRegExpTransitionRelation<Character> copy = relation.createCopy();
+        assertSame(relation.graph(), copy.graph());
+        assertEquals(states, explore(copy));
+        assertEquals(known, copy.graph().table().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignAction() {
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", reader.readExpression("a"));
+        relation.fireOneTransition(relation.initialConfigurations().iterator().next(), LRegExpAction.getInstance());
+    }
+
+    @Test
+    public void testParallelCopies() throws Exception {
+        //about 2^11 derivatives, more than the first chunks of the shared arrays
+        LRegExp.Expression<Character> expression = reader.readExpression("(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)");
+        LRegExpTransitionRelation<Character> relation = new LRegExpTransitionRelation<>("p", expression);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Set<LRegExpConfiguration>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                LRegExpTransitionRelation<Character> copy = relation.createCopy();
+                results.add(executor.submit(() -> explore(copy)));
+            }
+            Set<LRegExpConfiguration> first = results.get(0).get(60, TimeUnit.SECONDS);
+            for (Future<Set<LRegExpConfiguration>> result : results) {
+                assertEquals(first, result.get(60, TimeUnit.SECONDS));
+            }
+            assertEquals(LRegExpDFA.compile(expression).size(), first.size());
+            //each derivative was numbered once, by one of the workers
+            assertEquals(first.size(), relation.graph().table().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}